@@ -0,0 +1,153 @@
+package com.healthcare.healthcareproject.bench;
+
+import com.healthcare.healthcareproject.HealthcareprojectApplication;
+import com.healthcare.healthcareproject.dto.BookAppointmentRequest;
+import com.healthcare.healthcareproject.model.AppointmentSlot;
+import com.healthcare.healthcareproject.repository.AppointmentSlotRepository;
+import com.healthcare.healthcareproject.service.AppointmentBookingService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Bookings per second under contention (several threads per slot) on an in-memory H2 database, comparing the
+// conditional-update booking with the previous findById / status check / save. The doubleBooked counter reports
+// bookings that succeeded for a slot somebody else had already booked
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BookingContentionBenchmark {
+    @Param({"4"})
+    public int attemptsPerSlot;
+
+    @Param({"20000"})
+    public int slots;
+
+    private ConfigurableApplicationContext context;
+    private AppointmentBookingService bookingService;
+    private AppointmentSlotRepository slotRepository;
+    private TransactionTemplate transactionTemplate;
+    private JdbcTemplate jdbcTemplate;
+    private List<UUID> slotIds;
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentHashMap<UUID, AtomicInteger> successes = new ConcurrentHashMap<>();
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcome {
+        public long booked;
+        public long conflicts;
+        public long doubleBooked;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            booked = 0;
+            conflicts = 0;
+            doubleBooked = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        // Command-line arguments, so they take precedence over application.properties
+        context = new SpringApplicationBuilder(HealthcareprojectApplication.class).run(
+            "--server.port=0",
+            "--spring.datasource.url=jdbc:h2:mem:bench;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+            "--spring.datasource.driver-class-name=org.h2.Driver",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.datasource.hikari.maximum-pool-size=16",
+            "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+            "--spring.jpa.hibernate.ddl-auto=create-drop",
+            "--spring.jpa.show-sql=false",
+            "--logging.level.root=WARN");
+        bookingService = context.getBean(AppointmentBookingService.class);
+        slotRepository = context.getBean(AppointmentSlotRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        UUID providerId = UUID.randomUUID();
+        UUID availabilityId = UUID.randomUUID();
+        Instant first = Instant.parse("2025-01-01T09:00:00Z");
+        List<AppointmentSlot> batch = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) {
+            AppointmentSlot slot = new AppointmentSlot();
+            slot.setAvailabilityId(availabilityId);
+            slot.setProviderId(providerId);
+            slot.setSlotStartTime(first.plusSeconds(60 * (30L * i)));
+            slot.setSlotEndTime(first.plusSeconds(60 * (30L * i + 30)));
+            slot.setStatus(AppointmentSlot.Status.AVAILABLE);
+            batch.add(slot);
+        }
+        slotIds = slotRepository.saveAll(batch).stream().map(AppointmentSlot::getId).toList();
+    }
+
+    @Setup(Level.Iteration)
+    public void reopenSlots() {
+        jdbcTemplate.update("update appointment_slot set status = 'AVAILABLE', patient_id = null");
+        successes.clear();
+        sequence.set(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public void conditionalUpdate(Outcome outcome) {
+        UUID slotId = nextSlot();
+        record(slotId, bookingService.bookAppointment(request(slotId)).isPresent(), outcome);
+    }
+
+    @Benchmark
+    public void readModifyWrite(Outcome outcome) {
+        UUID slotId = nextSlot();
+        Boolean booked = transactionTemplate.execute(status -> {
+            AppointmentSlot slot = slotRepository.findById(slotId).orElse(null);
+            if (slot == null || slot.getStatus() != AppointmentSlot.Status.AVAILABLE) return false;
+            slot.setStatus(AppointmentSlot.Status.BOOKED);
+            slot.setPatientId(UUID.randomUUID());
+            slotRepository.save(slot);
+            return true;
+        });
+        record(slotId, Boolean.TRUE.equals(booked), outcome);
+    }
+
+    // attemptsPerSlot consecutive calls, usually from different threads, go to the same slot
+    private UUID nextSlot() {
+        return slotIds.get((int) (sequence.getAndIncrement() / attemptsPerSlot % slotIds.size()));
+    }
+
+    private void record(UUID slotId, boolean booked, Outcome outcome) {
+        if (!booked) {
+            outcome.conflicts++;
+            return;
+        }
+        outcome.booked++;
+        if (successes.computeIfAbsent(slotId, id -> new AtomicInteger()).incrementAndGet() > 1) {
+            outcome.doubleBooked++;
+        }
+    }
+
+    private static BookAppointmentRequest request(UUID slotId) {
+        BookAppointmentRequest request = new BookAppointmentRequest();
+        request.setSlotId(slotId);
+        request.setPatientId(UUID.randomUUID());
+        return request;
+    }
+}
@@ -0,0 +1,89 @@
+package com.healthcare.healthcareproject.bench;
+
+import com.healthcare.healthcareproject.security.JwtAuthFilter;
+import com.healthcare.healthcareproject.security.JwtClaimsCache;
+import com.healthcare.healthcareproject.security.JwtUtil;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Key;
+import java.util.concurrent.TimeUnit;
+
+// Cost of authenticating one request: the previous filter (validateToken + getSubjectFromToken, each building a
+// parser and verifying the HMAC) against the current filter with its claims cache, hit and miss. generateToken and
+// validateToken cover JwtUtil on its own: signing a login token and the uncached verification
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtAuthFilterBenchmark {
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private JwtUtil jwtUtil;
+    private JwtClaimsCache claimsCache;
+    private JwtAuthFilter filter;
+    private Key key;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        claimsCache = new JwtClaimsCache();
+        ReflectionTestUtils.setField(claimsCache, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(claimsCache, "maxEntries", 10_000);
+        filter = new JwtAuthFilter();
+        ReflectionTestUtils.setField(filter, "claimsCache", claimsCache);
+        key = (Key) ReflectionTestUtils.getField(jwtUtil, "key");
+        request = new MockHttpServletRequest("GET", "/api/v1/appointments/available");
+        request.addHeader("Authorization", "Bearer "
+            + jwtUtil.generateTokenWithClaims("4f1c2a7e-0d7b-4c55-9c8e-2f5b8f3f1a11", "patient@example.com", "patient", 1800));
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Object previousFilter() {
+        String token = request.getHeader("Authorization").substring(7);
+        String subject = null;
+        try {
+            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+            subject = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody().getSubject();
+        } catch (RuntimeException ignored) {
+        }
+        return subject;
+    }
+
+    @Benchmark
+    public Object cachedFilterHit() throws Exception {
+        filter.doFilter(request, response, NO_OP_CHAIN);
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        SecurityContextHolder.clearContext();
+        return principal;
+    }
+
+    @Benchmark
+    public Object cachedFilterMiss() throws Exception {
+        claimsCache.clear();
+        return cachedFilterHit();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateTokenWithClaims("4f1c2a7e-0d7b-4c55-9c8e-2f5b8f3f1a11", "patient@example.com", "patient", 1800);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(request.getHeader("Authorization").substring(7));
+    }
+
+    @Benchmark
+    public Object sharedParserOnly() {
+        return jwtUtil.parseClaims(request.getHeader("Authorization").substring(7)).getSubject();
+    }
+}
@@ -0,0 +1,36 @@
+package com.healthcare.healthcareproject.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.util.concurrent.TimeUnit;
+
+// One BCrypt hash and one verification at the work factor from healthcare.security.bcrypt.cost (12), plus the
+// previous default (10) for reference. This is the CPU time a registration or login holds a bcrypt thread for
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class PasswordHashingBenchmark {
+    @Param({"10", "12"})
+    public int cost;
+
+    private final String password = "SecurePassword123!";
+    private String passwordHash;
+
+    @Setup
+    public void setUp() {
+        passwordHash = BCrypt.hashpw(password, BCrypt.gensalt(cost));
+    }
+
+    @Benchmark
+    public String hash() {
+        return BCrypt.hashpw(password, BCrypt.gensalt(cost));
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return BCrypt.checkpw(password, passwordHash);
+    }
+}
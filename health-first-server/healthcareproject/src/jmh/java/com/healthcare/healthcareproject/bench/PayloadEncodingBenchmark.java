@@ -0,0 +1,85 @@
+package com.healthcare.healthcareproject.bench;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.healthcare.healthcareproject.controller.ApiEncodingConfig;
+import com.healthcare.healthcareproject.dto.APIResponse;
+import com.healthcare.healthcareproject.dto.SlotSummary;
+import com.healthcare.healthcareproject.model.AppointmentSlot;
+import com.healthcare.healthcareproject.util.ProviderSpecialization;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Body of a week-long slot search (10 providers of one specialization, 16 slots a day) in each negotiable encoding,
+// optionally gzipped the way server.compression does it. Raw and compressed sizes are printed in setUp
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PayloadEncodingBenchmark {
+    private static final int PROVIDERS = 10;
+    private static final int DAYS = 7;
+    private static final int SLOTS_PER_DAY = 16;
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private ObjectWriter writer;
+    private APIResponse<List<SlotSummary>> response;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = switch (format) {
+            case "smile" -> ApiEncodingConfig.smileMapper(Jackson2ObjectMapperBuilder.json());
+            case "cbor" -> ApiEncodingConfig.cborMapper(Jackson2ObjectMapperBuilder.json());
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+        writer = mapper.writerFor(new TypeReference<APIResponse<List<SlotSummary>>>() { });
+        List<SlotSummary> slots = new ArrayList<>(PROVIDERS * DAYS * SLOTS_PER_DAY);
+        for (int p = 0; p < PROVIDERS; p++) {
+            UUID providerId = UUID.randomUUID();
+            String name = "Provider" + p + " Smith";
+            for (int d = 0; d < DAYS; d++) {
+                Instant dayStart = LocalDate.of(2025, 3, 3).plusDays(d).atTime(9, 0).toInstant(ZoneOffset.UTC);
+                for (int s = 0; s < SLOTS_PER_DAY; s++) {
+                    Instant start = dayStart.plusSeconds(1800L * s);
+                    slots.add(new SlotSummary(UUID.randomUUID(), providerId, name, ProviderSpecialization.CARDIOLOGY,
+                        start, start.plusSeconds(1800), AppointmentSlot.Status.AVAILABLE, "consultation"));
+                }
+            }
+        }
+        response = new APIResponse<>();
+        response.setSuccess(true);
+        response.setMessage("Available slots");
+        response.setData(slots);
+        System.out.printf("%s payload for %d slots: %d bytes, gzipped %d bytes%n", format, slots.size(),
+            writer.writeValueAsBytes(response).length, gzipped().length);
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        return gzip ? gzipped() : writer.writeValueAsBytes(response);
+    }
+
+    private byte[] gzipped() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32 * 1024);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            writer.writeValue(out, response);
+        }
+        return bytes.toByteArray();
+    }
+}
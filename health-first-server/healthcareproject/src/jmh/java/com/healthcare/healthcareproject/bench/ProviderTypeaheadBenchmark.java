@@ -0,0 +1,75 @@
+package com.healthcare.healthcareproject.bench;
+
+import com.healthcare.healthcareproject.dto.ProviderSuggestion;
+import com.healthcare.healthcareproject.model.Provider;
+import com.healthcare.healthcareproject.search.ProviderTypeaheadIndex;
+import com.healthcare.healthcareproject.util.ProviderSpecialization;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Typeahead latency distribution (see the p0.99 row) with 8 threads replaying keystrokes: each query is typed one
+// character at a time, and every prefix is a lookup, as the portal sends them
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+public class ProviderTypeaheadBenchmark {
+    private static final String[] FIRST_NAMES = {"Ann", "Carla", "David", "Elena", "Frank", "Grace", "Henry", "Irene",
+        "James", "Karen", "Luis", "Maria", "Nathan", "Olivia", "Peter", "Rachel", "Samuel", "Teresa", "Victor", "Wendy"};
+    private static final String[] LAST_NAMES = {"Adams", "Baker", "Carter", "Diaz", "Evans", "Fischer", "Garcia", "Harris",
+        "Ito", "Johnson", "Kim", "Lopez", "Miller", "Nguyen", "Owens", "Patel", "Quinn", "Rossi", "Smith", "Turner",
+        "Underwood", "Vargas", "Walker", "Young", "Zimmerman"};
+    private static final String[] CITIES = {"Springfield", "Chicago", "Peoria", "Champaign", "Carbondale", "Decatur",
+        "Rockford", "Naperville", "Joliet", "Aurora"};
+    private static final String[] QUERIES = {"smith", "maria garcia", "cardio", "ped spring", "carter", "john",
+        "derm chicago", "nguyen", "ortho", "grace p", "walker rock", "general medicine", "kim", "zz"};
+
+    @Param({"10000"})
+    public int providers;
+
+    private ProviderTypeaheadIndex index;
+    private String[] keystrokes;
+
+    @Setup
+    public void setUp() {
+        index = new ProviderTypeaheadIndex();
+        Random random = new Random(42);
+        ProviderSpecialization[] specializations = ProviderSpecialization.values();
+        for (int i = 0; i < providers; i++) {
+            Provider provider = new Provider();
+            provider.setId(UUID.randomUUID());
+            provider.setFirstName(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]);
+            provider.setLastName(LAST_NAMES[random.nextInt(LAST_NAMES.length)] + (i % 7 == 0 ? "-" + LAST_NAMES[i % LAST_NAMES.length] : ""));
+            provider.setSpecialization(specializations[random.nextInt(specializations.length)]);
+            Provider.ClinicAddress address = new Provider.ClinicAddress();
+            address.setCity(CITIES[random.nextInt(CITIES.length)]);
+            provider.setClinicAddress(address);
+            provider.setIsActive(true);
+            index.register(provider);
+        }
+        List<String> prefixes = new ArrayList<>();
+        for (String query : QUERIES) {
+            for (int length = 1; length <= query.length(); length++) {
+                prefixes.add(query.substring(0, length));
+            }
+        }
+        keystrokes = prefixes.toArray(String[]::new);
+    }
+
+    @State(Scope.Thread)
+    public static class Typist {
+        int next;
+    }
+
+    @Benchmark
+    public List<ProviderSuggestion> keystroke(Typist typist) {
+        String prefix = keystrokes[typist.next];
+        typist.next = (typist.next + 1) % keystrokes.length;
+        return index.suggest(prefix, 10);
+    }
+}
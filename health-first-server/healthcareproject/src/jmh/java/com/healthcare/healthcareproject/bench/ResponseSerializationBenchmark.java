@@ -0,0 +1,91 @@
+package com.healthcare.healthcareproject.bench;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.healthcare.healthcareproject.dto.APIResponse;
+import com.healthcare.healthcareproject.dto.SlotSummary;
+import com.healthcare.healthcareproject.model.AppointmentSlot;
+import com.healthcare.healthcareproject.model.Provider;
+import com.healthcare.healthcareproject.util.ProviderSpecialization;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Writing the body of GET /api/v1/appointments/available: an APIResponse wrapping a page of slots, serialised with
+// an ObjectMapper configured the way Spring MVC builds its own (JavaTimeModule, ISO dates). Entities and the
+// SlotSummary rows the endpoint now returns are compared; run with -prof gc for bytes allocated per operation
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResponseSerializationBenchmark {
+    @Param({"20", "500"})
+    public int slots;
+
+    private ObjectWriter writer;
+    private ObjectWriter summaryWriter;
+    private APIResponse<List<AppointmentSlot>> response;
+    private APIResponse<List<SlotSummary>> summaryResponse;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = mapper.writerFor(new TypeReference<APIResponse<List<AppointmentSlot>>>() { });
+        summaryWriter = mapper.writerFor(new TypeReference<APIResponse<List<SlotSummary>>>() { });
+        Provider provider = new Provider();
+        provider.setFirstName("Ann");
+        provider.setLastName("Smith");
+        provider.setSpecialization(ProviderSpecialization.CARDIOLOGY);
+        UUID providerId = UUID.randomUUID();
+        UUID availabilityId = UUID.randomUUID();
+        List<AppointmentSlot> page = new ArrayList<>(slots);
+        List<SlotSummary> summaries = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) {
+            Instant start = LocalDate.of(2025, 1, 1).plusDays(i / 16).atTime(9, 0).atZone(ZoneOffset.UTC).plusMinutes(30L * (i % 16)).toInstant();
+            AppointmentSlot slot = new AppointmentSlot();
+            slot.setId(UUID.randomUUID());
+            slot.setProviderId(providerId);
+            slot.setAvailabilityId(availabilityId);
+            slot.setSlotStartTime(start);
+            slot.setSlotEndTime(start.plusSeconds(30 * 60));
+            slot.setStatus(AppointmentSlot.Status.AVAILABLE);
+            slot.setAppointmentType("consultation");
+            slot.setBookingReference(UUID.randomUUID().toString());
+            slot.setCreatedAt(start.minusSeconds(86_400));
+            slot.setUpdatedAt(slot.getCreatedAt());
+            page.add(slot);
+            summaries.add(SlotSummary.of(slot, provider));
+        }
+        response = new APIResponse<>();
+        response.setSuccess(true);
+        response.setMessage("Available slots");
+        response.setData(page);
+        summaryResponse = new APIResponse<>();
+        summaryResponse.setSuccess(true);
+        summaryResponse.setMessage("Available slots");
+        summaryResponse.setData(summaries);
+        try {
+            System.out.printf("Bytes per slot: entity %d, summary %d%n",
+                writer.writeValueAsBytes(response).length / slots, summaryWriter.writeValueAsBytes(summaryResponse).length / slots);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Benchmark
+    public byte[] writeAvailableSlots() throws Exception {
+        return writer.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] writeAvailableSlotSummaries() throws Exception {
+        return summaryWriter.writeValueAsBytes(summaryResponse);
+    }
+}
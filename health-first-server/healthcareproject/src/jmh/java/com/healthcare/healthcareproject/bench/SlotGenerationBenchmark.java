@@ -0,0 +1,55 @@
+package com.healthcare.healthcareproject.bench;
+
+import com.healthcare.healthcareproject.model.AppointmentSlot;
+import com.healthcare.healthcareproject.model.ProviderAvailability;
+import com.healthcare.healthcareproject.service.SlotGenerator;
+import com.healthcare.healthcareproject.util.SlotTimes;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.zone.ZoneRules;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Slot generation as ProviderAvailabilityService.createAvailability runs it: expand a daily 09:00-17:00 rule into
+// half-hour slots, then sweep the candidates against the provider's existing slots
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SlotGenerationBenchmark {
+    @Param({"30", "365"})
+    public int days;
+
+    private final LocalDate firstDay = LocalDate.of(2025, 1, 1);
+    private final ZoneRules zoneRules = SlotTimes.rules("America/New_York");
+    private ProviderAvailability availability;
+    private List<LocalDate> dates;
+    private List<AppointmentSlot> existing;
+
+    @Setup
+    public void setUp() {
+        availability = new ProviderAvailability();
+        availability.setId(UUID.randomUUID());
+        availability.setProviderId(UUID.randomUUID());
+        dates = SlotGenerator.recurrenceDates(firstDay, true, "daily", firstDay.plusDays(days - 1L), firstDay, firstDay.plusDays(days - 1L));
+        // An afternoon block on every day that overlaps the last candidates of the rule
+        existing = SlotGenerator.buildSlots(availability, dates, LocalTime.of(16, 15), LocalTime.of(18, 15), zoneRules, 60, 0, "consultation");
+    }
+
+    @Benchmark
+    public List<LocalDate> recurrenceDates() {
+        return SlotGenerator.recurrenceDates(firstDay, true, "daily", firstDay.plusDays(days - 1L), firstDay, firstDay.plusDays(days - 1L));
+    }
+
+    @Benchmark
+    public List<AppointmentSlot> buildSlots() {
+        return SlotGenerator.buildSlots(availability, dates, LocalTime.of(9, 0), LocalTime.of(17, 0), zoneRules, 30, 0, "consultation");
+    }
+
+    @Benchmark
+    public List<AppointmentSlot> buildSlotsWithoutOverlaps() {
+        return SlotGenerator.withoutOverlaps(buildSlots(), existing);
+    }
+}
@@ -0,0 +1,118 @@
+package com.healthcare.healthcareproject.bench;
+
+import com.healthcare.healthcareproject.dto.SlotSummary;
+import com.healthcare.healthcareproject.model.AppointmentSlot;
+import com.healthcare.healthcareproject.model.Provider;
+import com.healthcare.healthcareproject.model.ProviderAvailability;
+import com.healthcare.healthcareproject.search.SlotSearchCriteria;
+import com.healthcare.healthcareproject.search.SlotSearchIndex;
+import com.healthcare.healthcareproject.util.ProviderSpecialization;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Compares the previous findAll() + stream filter search with the in-memory slot index, and times the free/busy
+// bitmap intersection of several providers over the same week
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SlotSearchBenchmark {
+    @Param({"200"})
+    public int providers;
+
+    @Param({"1000"})
+    public int slotsPerProvider;
+
+    private final LocalDate firstDay = LocalDate.of(2025, 1, 1);
+    private List<AppointmentSlot> allSlots;
+    private SlotSearchIndex index;
+    private LocalDate weekStart;
+    private LocalDate weekEnd;
+    private List<UUID> teamIds;
+
+    @Setup
+    public void setUp() {
+        allSlots = new ArrayList<>(providers * slotsPerProvider);
+        teamIds = new ArrayList<>();
+        index = new SlotSearchIndex();
+        ProviderSpecialization[] specializations = ProviderSpecialization.values();
+        for (int p = 0; p < providers; p++) {
+            Provider provider = new Provider();
+            provider.setId(UUID.randomUUID());
+            provider.setSpecialization(specializations[p % specializations.length]);
+            index.registerProvider(provider);
+            if (teamIds.size() < 10) {
+                teamIds.add(provider.getId());
+            }
+            ProviderAvailability availability = new ProviderAvailability();
+            availability.setId(UUID.randomUUID());
+            ProviderAvailability.Location location = new ProviderAvailability.Location();
+            location.setType(p % 3 == 0 ? "telemedicine" : "clinic");
+            availability.setLocation(location);
+            ProviderAvailability.Pricing pricing = new ProviderAvailability.Pricing();
+            pricing.setBaseFee(50.0 + p % 10 * 25);
+            pricing.setInsuranceAccepted(p % 2 == 0);
+            availability.setPricing(pricing);
+            index.registerAvailability(availability);
+            // 16 half-hour slots per day from 09:00 UTC
+            for (int i = 0; i < slotsPerProvider; i++) {
+                Instant start = firstDay.plusDays(i / 16).atTime(9, 0).atZone(ZoneOffset.UTC).plusMinutes(30L * (i % 16)).toInstant();
+                AppointmentSlot slot = new AppointmentSlot();
+                slot.setId(UUID.randomUUID());
+                slot.setProviderId(provider.getId());
+                slot.setAvailabilityId(availability.getId());
+                slot.setSlotStartTime(start);
+                slot.setSlotEndTime(start.plusSeconds(30 * 60));
+                slot.setStatus(i % 5 == 0 ? AppointmentSlot.Status.BOOKED : AppointmentSlot.Status.AVAILABLE);
+                slot.setAppointmentType("consultation");
+                slot.setBookingReference(UUID.randomUUID().toString());
+                allSlots.add(slot);
+                index.index(slot);
+            }
+        }
+        weekStart = firstDay.plusDays(slotsPerProvider / 32);
+        weekEnd = weekStart.plusDays(6);
+    }
+
+    @Benchmark
+    public List<AppointmentSlot> streamFilterWeek() {
+        return allSlots.stream()
+            .filter(slot -> !LocalDate.ofInstant(slot.getSlotStartTime(), ZoneOffset.UTC).isBefore(weekStart)
+                && !LocalDate.ofInstant(slot.getSlotEndTime(), ZoneOffset.UTC).isAfter(weekEnd))
+            .filter(slot -> slot.getStatus() == AppointmentSlot.Status.AVAILABLE)
+            .toList();
+    }
+
+    @Benchmark
+    public List<SlotSummary> indexWeek() {
+        return index.search(criteria(null));
+    }
+
+    @Benchmark
+    public List<SlotSummary> indexWeekSpecialization() {
+        SlotSearchCriteria criteria = criteria(ProviderSpecialization.CARDIOLOGY);
+        criteria.setInsuranceAccepted(true);
+        criteria.setMaxPrice(150.0);
+        return index.search(criteria);
+    }
+
+    @Benchmark
+    public List<Instant> commonFreeBlocksWeek() {
+        return index.freeBlocks(teamIds, weekStart.atStartOfDay(ZoneOffset.UTC).toInstant(),
+            weekEnd.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant(), 30);
+    }
+
+    private SlotSearchCriteria criteria(ProviderSpecialization specialization) {
+        SlotSearchCriteria criteria = new SlotSearchCriteria();
+        criteria.setStartDate(weekStart);
+        criteria.setEndDate(weekEnd);
+        criteria.setSpecialization(specialization);
+        return criteria;
+    }
+}
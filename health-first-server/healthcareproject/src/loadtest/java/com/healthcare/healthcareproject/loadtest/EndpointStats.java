@@ -0,0 +1,61 @@
+package com.healthcare.healthcareproject.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Latencies and outcomes of one endpoint. 409 counts as a conflict and 503 as busy (bcrypt backpressure); any
+// other non-2xx status or an I/O failure counts as an error
+public class EndpointStats {
+    private final String name;
+    private long[] latencies = new long[1 << 14];
+    private int count;
+    private long ok;
+    private long conflicts;
+    private long busy;
+    private long errors;
+
+    public EndpointStats(String name) {
+        this.name = name;
+    }
+
+    public synchronized void record(long latencyNanos, int status) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+        if (status >= 200 && status < 300) ok++;
+        else if (status == 409) conflicts++;
+        else if (status == 503) busy++;
+        else errors++;
+    }
+
+    public String getName() { return name; }
+
+    public synchronized Map<String, Object> summary(double seconds) {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("endpoint", name);
+        summary.put("requests", count);
+        summary.put("throughput_per_sec", count / seconds);
+        summary.put("p50_ms", percentile(sorted, 50) / 1e6);
+        summary.put("p99_ms", percentile(sorted, 99) / 1e6);
+        summary.put("max_ms", count == 0 ? 0.0 : sorted[count - 1] / 1e6);
+        summary.put("ok", ok);
+        summary.put("conflicts", conflicts);
+        summary.put("busy", busy);
+        summary.put("errors", errors);
+        summary.put("conflict_rate", count == 0 ? 0.0 : (double) conflicts / count);
+        summary.put("busy_rate", count == 0 ? 0.0 : (double) busy / count);
+        summary.put("error_rate", count == 0 ? 0.0 : (double) errors / count);
+        return summary;
+    }
+
+    // Nearest-rank percentile
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) return 0;
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+}
@@ -0,0 +1,321 @@
+package com.healthcare.healthcareproject.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.healthcare.healthcareproject.HealthcareprojectApplication;
+import com.healthcare.healthcareproject.util.ProviderSpecialization;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+
+// End-to-end load test: boots the application on a random port against the in-memory "loadtest" profile, seeds
+// providers, patients and availability through the public API, then runs virtual users that each loop over a
+// weighted mix of slot searches, bookings and logins. Per-endpoint latency (p50/p99), throughput and
+// conflict/error rates are printed and written as JSON. Every option is a property, e.g. --loadtest.users=128
+public class LoadTest {
+    private static final String PASSWORD = "LoadTest123!";
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final String baseUrl;
+    private final Environment env;
+    private final LocalDate firstDay = LocalDate.now().plusDays(1);
+    private final List<UUID> providerIds = new CopyOnWriteArrayList<>();
+    private final List<Patient> patients = new CopyOnWriteArrayList<>();
+    private final List<UUID> slotIds = new CopyOnWriteArrayList<>();
+    private volatile Map<String, EndpointStats> stats = newStats();
+
+    private record Patient(UUID id, String email, String token) {}
+
+    private enum Operation {
+        AVAILABLE("GET /api/v1/appointments/available"),
+        SEARCH("GET /api/v1/availability/search"),
+        BOOK("POST /api/v1/appointments/book"),
+        LOGIN("POST /api/v1/patient/login");
+
+        private final String endpoint;
+
+        Operation(String endpoint) {
+            this.endpoint = endpoint;
+        }
+    }
+
+    LoadTest(String baseUrl, Environment env) {
+        this.baseUrl = baseUrl;
+        this.env = env;
+    }
+
+    public static void main(String[] args) throws Exception {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(HealthcareprojectApplication.class)
+            .profiles("loadtest")
+            .run(args);
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            new LoadTest("http://localhost:" + port, context.getEnvironment()).run();
+        } finally {
+            context.close();
+        }
+    }
+
+    void run() throws Exception {
+        int users = option("loadtest.users", 64);
+        int warmupSeconds = option("loadtest.warmup-seconds", 10);
+        int durationSeconds = option("loadtest.duration-seconds", 30);
+        ExecutorService pool = Executors.newFixedThreadPool(users);
+        // Few enough concurrent sign-ups that the bcrypt queue never rejects one
+        ExecutorService seedPool = Executors.newFixedThreadPool(option("loadtest.seed-threads", 8));
+        try {
+            long started = System.nanoTime();
+            seed(seedPool);
+            System.out.printf("Seeded %d providers, %d patients, %d slots in %d ms%n", providerIds.size(), patients.size(),
+                slotIds.size(), (System.nanoTime() - started) / 1_000_000);
+
+            Operation[] mix = mix();
+            drive(pool, users, mix, warmupSeconds);
+            stats = newStats();
+            drive(pool, users, mix, durationSeconds);
+            report(users, durationSeconds);
+        } finally {
+            pool.shutdownNow();
+            seedPool.shutdownNow();
+        }
+    }
+
+    // Registration and availability go through the API (and bcrypt) like real sign-ups, spread over the pool
+    private void seed(ExecutorService pool) throws Exception {
+        int providers = option("loadtest.providers", 20);
+        int patientCount = option("loadtest.patients", 100);
+        int days = option("loadtest.days", 30);
+        ProviderSpecialization[] specializations = ProviderSpecialization.values();
+
+        List<Callable<Object>> registrations = new ArrayList<>();
+        for (int i = 0; i < providers; i++) {
+            int n = i;
+            registrations.add(() -> providerIds.add(registerProvider(n, specializations[n % specializations.length])));
+        }
+        for (int i = 0; i < patientCount; i++) {
+            int n = i;
+            registrations.add(() -> patients.add(registerPatient(n)));
+        }
+        runAll(pool, registrations);
+
+        String token = patients.get(0).token();
+        List<Callable<Object>> availability = new ArrayList<>();
+        for (int i = 0; i < providerIds.size(); i++) {
+            UUID providerId = providerIds.get(i);
+            int n = i;
+            availability.add(() -> {
+                createAvailability(providerId, n, days, token);
+                return slotIds.addAll(availableSlotIds(providerId, days, token));
+            });
+        }
+        runAll(pool, availability);
+    }
+
+    private UUID registerProvider(int n, ProviderSpecialization specialization) throws Exception {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("firstName", "Provider");
+        body.put("lastName", "Load" + n);
+        body.put("email", "provider" + n + "@loadtest.local");
+        body.put("phoneNumber", String.format("+1555%07d", n));
+        body.put("password", PASSWORD);
+        body.put("confirmPassword", PASSWORD);
+        body.put("specialization", specialization.name());
+        body.put("licenseNumber", "LT" + n);
+        body.put("yearsOfExperience", 5 + n % 20);
+        body.put("clinicAddress", Map.of("street", n + " Main St", "city", "Springfield", "state", "IL", "zip", "62701"));
+        JsonNode response = expect(201, post("/api/v1/provider/register", body, null));
+        return UUID.fromString(response.path("data").path("providerId").asText());
+    }
+
+    private Patient registerPatient(int n) throws Exception {
+        String email = "patient" + n + "@loadtest.local";
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("firstName", "Patient");
+        body.put("lastName", "Load" + n);
+        body.put("email", email);
+        body.put("phoneNumber", String.format("+1666%07d", n));
+        body.put("password", PASSWORD);
+        body.put("confirmPassword", PASSWORD);
+        body.put("dateOfBirth", "1985-06-15");
+        body.put("gender", "other");
+        body.put("address", Map.of("street", n + " Oak Ave", "city", "Springfield", "state", "IL", "zip", "62701"));
+        JsonNode registered = expect(201, post("/api/v1/patient/register", body, null));
+        UUID id = UUID.fromString(registered.path("data").path("patientId").asText());
+        JsonNode login = expect(200, post("/api/v1/patient/login", Map.of("email", email, "password", PASSWORD), null));
+        return new Patient(id, email, login.path("data").path("access_token").asText());
+    }
+
+    private void createAvailability(UUID providerId, int n, int days, String token) throws Exception {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("date", firstDay.toString());
+        body.put("startTime", "09:00");
+        body.put("endTime", "17:00");
+        body.put("timezone", "UTC");
+        body.put("recurring", true);
+        body.put("recurrencePattern", "daily");
+        body.put("recurrenceEndDate", firstDay.plusDays(days - 1L).toString());
+        body.put("slotDuration", 30);
+        body.put("breakDuration", 0);
+        body.put("appointmentType", "consultation");
+        body.put("location", Map.of("type", n % 3 == 0 ? "telemedicine" : "clinic", "address", n + " Main St"));
+        body.put("pricing", Map.of("base_fee", 50 + n % 10 * 25, "insurance_accepted", n % 2 == 0));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/provider/availability"))
+            .header("Content-Type", "application/json")
+            .header("Authorization", "Bearer " + token)
+            .header("X-Provider-Id", providerId.toString())
+            .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(body)))
+            .build();
+        expect(201, client.send(request, HttpResponse.BodyHandlers.ofString()));
+    }
+
+    private List<UUID> availableSlotIds(UUID providerId, int days, String token) throws Exception {
+        JsonNode response = expect(200, get("/api/v1/appointments/available?providerId=" + providerId
+            + "&startDate=" + firstDay + "&endDate=" + firstDay.plusDays(days - 1L), token));
+        List<UUID> ids = new ArrayList<>();
+        response.path("data").forEach(slot -> ids.add(UUID.fromString(slot.path("id").asText())));
+        return ids;
+    }
+
+    private void drive(ExecutorService pool, int users, Operation[] mix, int seconds) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Callable<Object>> virtualUsers = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            Patient patient = patients.get(i % patients.size());
+            virtualUsers.add(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    execute(mix[random.nextInt(mix.length)], patient, random);
+                }
+                return null;
+            });
+        }
+        runAll(pool, virtualUsers);
+    }
+
+    private void execute(Operation operation, Patient patient, ThreadLocalRandom random) {
+        LocalDate from = firstDay.plusDays(random.nextInt(option("loadtest.days", 30)));
+        HttpRequest request = switch (operation) {
+            case AVAILABLE -> getRequest("/api/v1/appointments/available?specialization="
+                + ProviderSpecialization.values()[random.nextInt(ProviderSpecialization.values().length)].name()
+                + "&startDate=" + from + "&endDate=" + from.plusDays(6), patient.token());
+            // searchSlots is mapped under the controller's class-level path
+            case SEARCH -> getRequest("/api/v1/provider/availability/api/v1/availability/search?start_date=" + from
+                + "&end_date=" + from.plusDays(2) + "&insurance_accepted=true&max_price=150", patient.token());
+            case BOOK -> postRequest("/api/v1/appointments/book",
+                Map.of("slotId", slotIds.get(random.nextInt(slotIds.size())), "patientId", patient.id()), patient.token());
+            case LOGIN -> postRequest("/api/v1/patient/login", Map.of("email", patient.email(), "password", PASSWORD), null);
+        };
+        EndpointStats endpoint = stats.get(operation.endpoint);
+        long started = System.nanoTime();
+        int status;
+        try {
+            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception e) {
+            status = -1;
+        }
+        endpoint.record(System.nanoTime() - started, status);
+    }
+
+    private void report(int users, int seconds) throws Exception {
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        System.out.printf("%n%-38s %9s %10s %9s %9s %9s %9s %9s%n", "Endpoint", "Requests", "Req/s", "p50 ms", "p99 ms",
+            "Conflict", "Busy", "Error");
+        for (EndpointStats endpoint : stats.values()) {
+            Map<String, Object> summary = endpoint.summary(seconds);
+            endpoints.add(summary);
+            long requests = Math.max(1, ((Number) summary.get("requests")).longValue());
+            System.out.printf("%-38s %9d %10.1f %9.2f %9.2f %8.1f%% %8.1f%% %8.1f%%%n", endpoint.getName(), summary.get("requests"),
+                summary.get("throughput_per_sec"), summary.get("p50_ms"), summary.get("p99_ms"),
+                100 * (double) summary.get("conflict_rate"), 100.0 * (long) summary.get("busy") / requests,
+                100.0 * (long) summary.get("errors") / requests);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("users", users);
+        result.put("duration_seconds", seconds);
+        result.put("providers", providerIds.size());
+        result.put("patients", patients.size());
+        result.put("slots", slotIds.size());
+        result.put("endpoints", endpoints);
+        File file = new File(env.getProperty("loadtest.result", "target/loadtest-result.json"));
+        if (file.getParentFile() != null) file.getParentFile().mkdirs();
+        mapper.writeValue(file, result);
+        System.out.println("\nLoad test result is saved to " + file.getAbsolutePath());
+    }
+
+    // Weighted operation table, e.g. --loadtest.mix=available:35,search:35,book:20,login:10
+    private Operation[] mix() {
+        List<Operation> table = new ArrayList<>();
+        for (String entry : env.getProperty("loadtest.mix", "available:35,search:35,book:20,login:10").split(",")) {
+            String[] parts = entry.trim().split(":");
+            Operation operation = Operation.valueOf(parts[0].trim().toUpperCase());
+            for (int i = 0; i < Integer.parseInt(parts[1].trim()); i++) table.add(operation);
+        }
+        if (table.isEmpty()) throw new IllegalArgumentException("loadtest.mix has no weights");
+        return table.toArray(new Operation[0]);
+    }
+
+    private static Map<String, EndpointStats> newStats() {
+        Map<String, EndpointStats> stats = new LinkedHashMap<>();
+        for (Operation operation : Operation.values()) {
+            stats.put(operation.endpoint, new EndpointStats(operation.endpoint));
+        }
+        return stats;
+    }
+
+    private int option(String name, int defaultValue) {
+        return env.getProperty(name, Integer.class, defaultValue);
+    }
+
+    private static void runAll(ExecutorService pool, List<Callable<Object>> tasks) throws Exception {
+        for (Future<Object> future : pool.invokeAll(tasks)) {
+            future.get();
+        }
+    }
+
+    private HttpRequest getRequest(String path, String token) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .header("Authorization", "Bearer " + token)
+            .GET()
+            .build();
+    }
+
+    private HttpRequest postRequest(String path, Object body, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .header("Content-Type", "application/json");
+        if (token != null) builder.header("Authorization", "Bearer " + token);
+        try {
+            return builder.POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(body))).build();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HttpResponse<String> get(String path, String token) throws Exception {
+        return client.send(getRequest(path, token), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, Object body, String token) throws Exception {
+        return client.send(postRequest(path, body, token), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private JsonNode expect(int status, HttpResponse<String> response) throws Exception {
+        if (response.statusCode() != status) {
+            throw new IllegalStateException("Seeding " + response.request().uri() + " returned " + response.statusCode()
+                + ": " + response.body());
+        }
+        return mapper.readTree(response.body());
+    }
+}
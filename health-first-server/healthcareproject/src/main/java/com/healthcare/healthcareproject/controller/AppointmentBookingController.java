@@ -1,15 +1,25 @@
 package com.healthcare.healthcareproject.controller;
 
+import com.healthcare.healthcareproject.dto.BatchBookingRequest;
+import com.healthcare.healthcareproject.dto.BatchBookingResponse;
 import com.healthcare.healthcareproject.dto.BookAppointmentRequest;
 import com.healthcare.healthcareproject.dto.APIResponse;
+import com.healthcare.healthcareproject.dto.CursorPage;
+import com.healthcare.healthcareproject.dto.SlotSummary;
 import com.healthcare.healthcareproject.model.AppointmentSlot;
 import com.healthcare.healthcareproject.service.AppointmentBookingService;
+import com.healthcare.healthcareproject.util.NdjsonWriter;
+import com.healthcare.healthcareproject.util.ProviderSpecialization;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.Valid;
 import java.util.UUID;
 import java.time.LocalDate;
@@ -20,19 +30,43 @@ import java.util.List;
 @RestController
 @RequestMapping("/api/v1/appointments")
 public class AppointmentBookingController {
-    
+    static final int MAX_PAGE_SIZE = 100;
+    // Offset pages are read from the start of the range, so deep pages are capped; the cursor form has no such limit
+    static final int MAX_PAGE = 1000;
+
     @Autowired
     private AppointmentBookingService bookingService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping("/appointments")
-    @Operation(summary = "Get paginated list of all booked appointments")
-    public ResponseEntity<APIResponse<Page<AppointmentSlot>>> getAllAppointments(
+    @Operation(summary = "Get paginated list of all booked appointments",
+               description = "Pass cursor (empty for the first page, then nextCursor) for keyset pagination; includeTotal adds a count")
+    public ResponseEntity<APIResponse<?>> getAllAppointments(
             @RequestParam(required = false) UUID providerId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal
     ) {
+        if (!validPage(page, size)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(invalidPage());
+        }
+        if (cursor != null) {
+            APIResponse<CursorPage<AppointmentSlot>> resp = new APIResponse<>();
+            try {
+                resp.setData(bookingService.getBookedAppointments(providerId, startDate, endDate, cursor, size, includeTotal));
+            } catch (IllegalArgumentException ex) {
+                resp.setSuccess(false);
+                resp.setMessage("Invalid cursor");
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(resp);
+            }
+            resp.setSuccess(true);
+            return ResponseEntity.ok(resp);
+        }
         Page<AppointmentSlot> bookedSlots = bookingService.getBookedAppointments(providerId, startDate, endDate, page, size);
         APIResponse<Page<AppointmentSlot>> resp = new APIResponse<>();
         resp.setSuccess(true);
@@ -42,14 +76,73 @@ public class AppointmentBookingController {
 
     @GetMapping("/available")
     @Operation(summary = "Get available appointment slots for booking")
-    public ResponseEntity<APIResponse<List<AppointmentSlot>>> getAvailableSlots(
+    public ResponseEntity<APIResponse<List<SlotSummary>>> getAvailableSlots(
+            @RequestParam(required = false) UUID providerId,
+            @RequestParam(required = false) String specialization,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        APIResponse<List<SlotSummary>> resp = new APIResponse<>();
+        ProviderSpecialization providerSpecialization;
+        try {
+            providerSpecialization = specialization(specialization);
+        } catch (IllegalArgumentException ex) {
+            resp.setSuccess(false);
+            resp.setMessage("Invalid specialization");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(resp);
+        }
+        List<SlotSummary> availableSlots = bookingService.getAvailableSlots(providerId, providerSpecialization, startDate, endDate);
+        resp.setSuccess(true);
+        resp.setData(availableSlots);
+        return ResponseEntity.ok(resp);
+    }
+
+    @GetMapping(value = "/available", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream available appointment slots as NDJSON, one slot per line (Accept: application/x-ndjson)")
+    public ResponseEntity<StreamingResponseBody> streamAvailableSlots(
             @RequestParam(required = false) UUID providerId,
             @RequestParam(required = false) String specialization,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        
-        List<AppointmentSlot> availableSlots = bookingService.getAvailableSlots(providerId, specialization, startDate, endDate);
-        APIResponse<List<AppointmentSlot>> resp = new APIResponse<>();
+        ProviderSpecialization providerSpecialization;
+        try {
+            providerSpecialization = specialization(specialization);
+        } catch (IllegalArgumentException ex) {
+            APIResponse<Void> resp = new APIResponse<>();
+            resp.setSuccess(false);
+            resp.setMessage("Invalid specialization");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writeValue(out, resp));
+        }
+        StreamingResponseBody body = out -> {
+            try (NdjsonWriter writer = new NdjsonWriter(objectMapper, out)) {
+                bookingService.streamAvailableSlots(providerId, providerSpecialization, startDate, endDate, writer::write);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping("/available/page")
+    @Operation(summary = "Get available appointment slots one page (slice) at a time")
+    public ResponseEntity<APIResponse<Slice<SlotSummary>>> getAvailableSlotsPage(
+            @RequestParam(required = false) UUID providerId,
+            @RequestParam(required = false) String specialization,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size) {
+        if (!validPage(page, size)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(invalidPage());
+        }
+        APIResponse<Slice<SlotSummary>> resp = new APIResponse<>();
+        ProviderSpecialization providerSpecialization;
+        try {
+            providerSpecialization = specialization(specialization);
+        } catch (IllegalArgumentException ex) {
+            resp.setSuccess(false);
+            resp.setMessage("Invalid specialization");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(resp);
+        }
+        Slice<SlotSummary> availableSlots = bookingService.getAvailableSlots(providerId, providerSpecialization, startDate, endDate, page, size);
         resp.setSuccess(true);
         resp.setData(availableSlots);
         return ResponseEntity.ok(resp);
@@ -71,4 +164,38 @@ public class AppointmentBookingController {
         resp.setData(booked.get());
         return ResponseEntity.status(HttpStatus.CREATED).body(resp);
     }
-}
\ No newline at end of file
+
+    @PostMapping("/book/batch")
+    @Operation(summary = "Book several slots at once (e.g. consult + follow-up); either every slot is booked or none is")
+    public ResponseEntity<APIResponse<BatchBookingResponse>> bookAppointments(
+            @RequestBody @Valid BatchBookingRequest request) {
+        APIResponse<BatchBookingResponse> resp = new APIResponse<>();
+        BatchBookingResponse result = bookingService.bookAppointments(request);
+        resp.setData(result);
+        if (!result.isBooked()) {
+            resp.setSuccess(false);
+            resp.setMessage("One or more slots not available or not found; nothing was booked");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(resp);
+        }
+        resp.setSuccess(true);
+        resp.setMessage("Appointments booked successfully");
+        return ResponseEntity.status(HttpStatus.CREATED).body(resp);
+    }
+
+    private static boolean validPage(int page, int size) {
+        return size >= 1 && size <= MAX_PAGE_SIZE && page >= 0 && page <= MAX_PAGE;
+    }
+
+    private static <T> APIResponse<T> invalidPage() {
+        APIResponse<T> resp = new APIResponse<>();
+        resp.setSuccess(false);
+        resp.setMessage("size must be between 1 and " + MAX_PAGE_SIZE + " and page between 0 and " + MAX_PAGE);
+        return resp;
+    }
+
+    // Null when absent; throws IllegalArgumentException for a name that is not a ProviderSpecialization
+    private static ProviderSpecialization specialization(String specialization) {
+        return specialization != null && !specialization.isBlank()
+            ? ProviderSpecialization.valueOf(specialization.trim().toUpperCase()) : null;
+    }
+}
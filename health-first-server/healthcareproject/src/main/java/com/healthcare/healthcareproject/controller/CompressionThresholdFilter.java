@@ -0,0 +1,106 @@
+package com.healthcare.healthcareproject.controller;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Tomcat only applies server.compression.min-response-size when it knows the body length, and the message converters
+// flush before closing, which commits every response as chunked (and so compressed, however small). Flushes are
+// held back until min-response-size bytes were written: a smaller body stays in Tomcat's buffer and goes out with a
+// Content-Length, uncompressed. Larger bodies and NDJSON streams flush as before
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "server.compression.enabled", havingValue = "true")
+public class CompressionThresholdFilter extends OncePerRequestFilter {
+    @Value("${server.compression.min-response-size:2KB}")
+    private DataSize minResponseSize;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        filterChain.doFilter(request, new ThresholdResponse(response, minResponseSize.toBytes()));
+    }
+
+    private static class ThresholdResponse extends HttpServletResponseWrapper {
+        private final long threshold;
+        private ThresholdOutputStream out;
+
+        ThresholdResponse(HttpServletResponse response, long threshold) {
+            super(response);
+            this.threshold = threshold;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (out == null) {
+                out = new ThresholdOutputStream(super.getOutputStream(), threshold);
+            }
+            return out;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (out == null || out.written >= threshold) {
+                super.flushBuffer();
+            }
+        }
+    }
+
+    private static class ThresholdOutputStream extends ServletOutputStream {
+        private final ServletOutputStream delegate;
+        private final long threshold;
+        private long written;
+
+        ThresholdOutputStream(ServletOutputStream delegate, long threshold) {
+            this.delegate = delegate;
+            this.threshold = threshold;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            written++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            written += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (written >= threshold) {
+                delegate.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+}
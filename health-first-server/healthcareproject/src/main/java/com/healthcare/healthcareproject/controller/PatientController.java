@@ -6,15 +6,19 @@ import com.healthcare.healthcareproject.dto.PatientLoginRequest;
 import com.healthcare.healthcareproject.dto.PatientLoginResponse;
 import com.healthcare.healthcareproject.service.PatientService;
 import com.healthcare.healthcareproject.service.PatientService.PatientRegistrationException;
+import com.healthcare.healthcareproject.security.LoginThrottle;
+import com.healthcare.healthcareproject.security.PasswordHasher;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import java.util.HashMap;
 import java.util.Map;
@@ -24,6 +28,8 @@ import java.util.Map;
 public class PatientController {
     @Autowired
     private PatientService patientService;
+    @Autowired
+    private LoginThrottle loginThrottle;
 
     @Operation(summary = "Register a new patient with secure credentials and optional insurance data")
     @ApiResponses(value = {
@@ -56,11 +62,15 @@ public class PatientController {
     @Operation(summary = "Patient login with email or phone and password")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Login successful"),
+        @ApiResponse(responseCode = "503", description = "Password hashing at capacity, retry later"),
+        @ApiResponse(responseCode = "429", description = "Too many attempts for this account or client"),
         @ApiResponse(responseCode = "401", description = "Invalid credentials or inactive account"),
         @ApiResponse(responseCode = "400", description = "Validation error")
     })
     @PostMapping("/login")
-    public ResponseEntity<?> loginPatient(@RequestBody @Valid PatientLoginRequest request) {
+    public ResponseEntity<?> loginPatient(@RequestBody @Valid PatientLoginRequest request, HttpServletRequest httpRequest) {
+        String account = request.getEmail() != null && !request.getEmail().isBlank() ? request.getEmail() : request.getPhoneNumber();
+        loginThrottle.acquire(httpRequest.getRemoteAddr(), LoginThrottle.accountKey("patient", account));
         PatientLoginResponse response = patientService.login(request);
         if (response.isSuccess()) {
             return ResponseEntity.ok(response);
@@ -85,6 +95,25 @@ public class PatientController {
         return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(err);
     }
 
+    @ExceptionHandler(PasswordHasher.BusyException.class)
+    public ResponseEntity<?> handleHasherBusy(PasswordHasher.BusyException ex) {
+        Map<String, Object> err = new HashMap<>();
+        err.put("success", false);
+        err.put("message", ex.getMessage());
+        err.put("error_code", "SERVICE_BUSY");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(err);
+    }
+
+    @ExceptionHandler(LoginThrottle.ThrottledException.class)
+    public ResponseEntity<?> handleThrottled(LoginThrottle.ThrottledException ex) {
+        Map<String, Object> err = new HashMap<>();
+        err.put("success", false);
+        err.put("message", ex.getMessage());
+        err.put("error_code", "TOO_MANY_ATTEMPTS");
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds())).body(err);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<?> handleOtherExceptions(Exception ex) {
         Map<String, Object> err = new HashMap<>();
@@ -3,20 +3,46 @@ package com.healthcare.healthcareproject.controller;
 import com.healthcare.healthcareproject.dto.ProviderAvailabilityRequest;
 import com.healthcare.healthcareproject.dto.ProviderAvailabilityResponse;
 import com.healthcare.healthcareproject.dto.APIResponse;
+import com.healthcare.healthcareproject.dto.FreeBlock;
+import com.healthcare.healthcareproject.dto.ResourceVersion;
+import com.healthcare.healthcareproject.dto.SlotDayCount;
+import com.healthcare.healthcareproject.dto.SlotSummary;
+import com.healthcare.healthcareproject.geo.GeoPoint;
+import com.healthcare.healthcareproject.geo.ZipCodeGeocoder;
 import com.healthcare.healthcareproject.service.ProviderAvailabilityService;
 import com.healthcare.healthcareproject.model.AppointmentSlot;
 import com.healthcare.healthcareproject.repository.ProviderAvailabilityRepository;
 import com.healthcare.healthcareproject.repository.AppointmentSlotRepository;
+import com.healthcare.healthcareproject.search.SlotSearchCriteria;
+import com.healthcare.healthcareproject.search.SlotSearchIndex;
+import com.healthcare.healthcareproject.util.NdjsonWriter;
+import com.healthcare.healthcareproject.util.ProviderSpecialization;
+import com.healthcare.healthcareproject.util.SlotTimes;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.Valid;
 import java.util.UUID;
+import java.time.DateTimeException;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -25,12 +51,26 @@ import org.springframework.format.annotation.DateTimeFormat;
 @RestController
 @RequestMapping("/api/v1/provider/availability")
 public class ProviderAvailabilityController {
+    private static final int MAX_SUMMARY_DAYS = 366;
+    private static final int MAX_RADIUS_KM = 500;
+    private static final int MAX_FREE_DAYS = 31;
+    private static final int MAX_FREE_PROVIDERS = 20;
+    private static final int MAX_BLOCK_MINUTES = 180;
+
     @Autowired
     private ProviderAvailabilityService availabilityService;
     @Autowired
     private ProviderAvailabilityRepository availabilityRepository;
     @Autowired
     private AppointmentSlotRepository slotRepository;
+    @Autowired
+    private SlotSearchIndex slotSearchIndex;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ZipCodeGeocoder zipCodeGeocoder;
 
     @Operation(summary = "Create provider availability slots (with recurrence and time zone support)")
     @ApiResponses(value = {
@@ -57,22 +97,104 @@ public class ProviderAvailabilityController {
     }
 
     @GetMapping("/api/v1/provider/{providerId}/availability")
-    @Operation(summary = "Get provider availability by date range and filters")
-    public ResponseEntity<APIResponse<List<AppointmentSlot>>> getProviderAvailability(
+    @Operation(summary = "Get provider availability by date range and filters",
+               description = "With timezone, the dates are days in that zone and slot times are written at its offset")
+    public ResponseEntity<APIResponse<List<?>>> getProviderAvailability(
             @PathVariable UUID providerId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start_date,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end_date,
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String appointment_type,
-            @RequestParam(required = false) String timezone) {
-        List<AppointmentSlot> slots = slotRepository.findByProviderId(providerId).stream()
-            .filter(slot -> !slot.getSlotStartTime().toLocalDate().isBefore(start_date) && !slot.getSlotEndTime().toLocalDate().isAfter(end_date))
-            .toList();
-        // Optionally filter by status, appointment_type, timezone
-        APIResponse<List<AppointmentSlot>> resp = new APIResponse<>();
+            @RequestParam(required = false) String timezone,
+            WebRequest webRequest) {
+        APIResponse<List<?>> resp = new APIResponse<>();
+        ZoneId zone;
+        try {
+            availabilityService.statuses(status);
+        } catch (IllegalArgumentException ex) {
+            resp.setSuccess(false);
+            resp.setMessage("Invalid status");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(resp);
+        }
+        try {
+            zone = zone(timezone);
+        } catch (IllegalArgumentException ex) {
+            resp.setSuccess(false);
+            resp.setMessage(ex.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(resp);
+        }
+        if (notModified(providerId, start_date, end_date, zone, webRequest)) {
+            return null;
+        }
+        List<SlotSummary> slots = availabilityService.getProviderAvailability(providerId, start_date, end_date, zone, status, appointment_type);
         resp.setSuccess(true);
-        resp.setData(slots);
-        return ResponseEntity.ok(resp);
+        resp.setData(inZone(slots, zone));
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(resp);
+    }
+
+    @GetMapping(value = "/api/v1/provider/{providerId}/availability", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream provider availability as NDJSON, one slot per line (Accept: application/x-ndjson)")
+    public ResponseEntity<StreamingResponseBody> streamProviderAvailability(
+            @PathVariable UUID providerId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start_date,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end_date,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String appointment_type,
+            @RequestParam(required = false) String timezone,
+            WebRequest webRequest) {
+        Collection<AppointmentSlot.Status> statuses;
+        ZoneId zone;
+        try {
+            statuses = availabilityService.statuses(status);
+        } catch (IllegalArgumentException ex) {
+            return badNdjsonRequest("Invalid status");
+        }
+        try {
+            zone = zone(timezone);
+        } catch (IllegalArgumentException ex) {
+            return badNdjsonRequest(ex.getMessage());
+        }
+        if (notModified(providerId, start_date, end_date, zone, webRequest)) {
+            return null;
+        }
+        StreamingResponseBody body = out -> {
+            try (NdjsonWriter writer = new NdjsonWriter(objectMapper, out)) {
+                availabilityService.streamProviderAvailability(providerId, start_date, end_date, zone, statuses, appointment_type,
+                    slot -> writer.write(slot.inZone(zone)));
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON)
+            .cacheControl(CacheControl.noCache().cachePrivate()).body(body);
+    }
+
+    // Polling portals send back ETag/Last-Modified; when nothing changed the request ends with 304 before any
+    // slot is loaded. The validators are set on the response either way
+    private boolean notModified(UUID providerId, LocalDate startDate, LocalDate endDate, ZoneId zone, WebRequest webRequest) {
+        ResourceVersion version = availabilityService.availabilityVersion(providerId, startDate, endDate, zone);
+        return webRequest.checkNotModified(version.eTag(), version.lastModified());
+    }
+
+    private ResponseEntity<StreamingResponseBody> badNdjsonRequest(String message) {
+        APIResponse<Void> resp = new APIResponse<>();
+        resp.setSuccess(false);
+        resp.setMessage(message);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).contentType(MediaType.APPLICATION_JSON)
+            .body(out -> objectMapper.writeValue(out, resp));
+    }
+
+    // Slots keep UTC instants unless the request named a time zone; then each row is converted as it is written
+    private static List<?> inZone(List<SlotSummary> slots, ZoneId zone) {
+        return zone == null ? slots : slots.stream().map(slot -> slot.inZone(zone)).toList();
+    }
+
+    // Null for no timezone parameter; throws IllegalArgumentException for an unknown one
+    private static ZoneId zone(String timezone) {
+        if (timezone == null || timezone.isBlank()) return null;
+        try {
+            return SlotTimes.zone(timezone.trim());
+        } catch (DateTimeException ex) {
+            throw new IllegalArgumentException("Invalid timezone");
+        }
     }
 
     @PutMapping("/{slotId}")
@@ -80,7 +202,7 @@ public class ProviderAvailabilityController {
     public ResponseEntity<APIResponse<AppointmentSlot>> updateSlot(
             @PathVariable UUID slotId,
             @RequestBody Map<String, Object> updates) {
-        Optional<AppointmentSlot> slotOpt = slotRepository.findById(slotId);
+        Optional<AppointmentSlot> slotOpt = availabilityService.findSlot(slotId);
         APIResponse<AppointmentSlot> resp = new APIResponse<>();
         if (slotOpt.isEmpty()) {
             resp.setSuccess(false);
@@ -88,6 +210,7 @@ public class ProviderAvailabilityController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(resp);
         }
         AppointmentSlot slot = slotOpt.get();
+        AppointmentSlot.Status previousStatus = slot.getStatus();
         if (updates.containsKey("start_time")) {
             // parse and update start_time
         }
@@ -103,9 +226,14 @@ public class ProviderAvailabilityController {
         if (updates.containsKey("pricing")) {
             // handle pricing if present in model
         }
-        slotRepository.save(slot);
+        Optional<AppointmentSlot> saved = availabilityService.saveSlot(slot, previousStatus);
+        if (saved.isEmpty()) {
+            resp.setSuccess(false);
+            resp.setMessage("Slot was changed by another request");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(resp);
+        }
         resp.setSuccess(true);
-        resp.setData(slot);
+        resp.setData(saved.get());
         return ResponseEntity.ok(resp);
     }
 
@@ -115,7 +243,7 @@ public class ProviderAvailabilityController {
             @PathVariable UUID slotId,
             @RequestParam(required = false, defaultValue = "false") boolean delete_recurring,
             @RequestParam(required = false) String reason) {
-        Optional<AppointmentSlot> slotOpt = slotRepository.findById(slotId);
+        Optional<AppointmentSlot> slotOpt = availabilityService.findSlot(slotId);
         APIResponse<Void> resp = new APIResponse<>();
         if (slotOpt.isEmpty()) {
             resp.setSuccess(false);
@@ -128,15 +256,17 @@ public class ProviderAvailabilityController {
             resp.setMessage("Cannot delete a booked slot");
             return ResponseEntity.status(HttpStatus.CONFLICT).body(resp);
         }
-        slotRepository.delete(slot);
+        availabilityService.deleteSlot(slot);
         resp.setSuccess(true);
         resp.setMessage("Slot deleted");
         return ResponseEntity.ok(resp);
     }
 
     @GetMapping("/api/v1/availability/search")
-    @Operation(summary = "Patient slot search")
-    public ResponseEntity<APIResponse<List<AppointmentSlot>>> searchSlots(
+    @Operation(summary = "Patient slot search",
+               description = "latitude/longitude (or near_zip) with radius_km returns slots within that distance, nearest first." +
+                             " With timezone, the dates are days in that zone and slot times are written at its offset")
+    public ResponseEntity<APIResponse<List<?>>> searchSlots(
             @RequestParam LocalDate start_date,
             @RequestParam LocalDate end_date,
             @RequestParam(required = false) String specialization,
@@ -145,15 +275,179 @@ public class ProviderAvailabilityController {
             @RequestParam(required = false) Boolean insurance_accepted,
             @RequestParam(required = false) Double max_price,
             @RequestParam(required = false, defaultValue = "true") boolean available_only,
-            @RequestParam(required = false) String timezone) {
-        // This is a simplified search; real implementation would join with provider, filter by specialization, etc.
-        List<AppointmentSlot> slots = slotRepository.findAll().stream()
-            .filter(slot -> !slot.getSlotStartTime().toLocalDate().isBefore(start_date) && !slot.getSlotEndTime().toLocalDate().isAfter(end_date))
-            .filter(slot -> !available_only || slot.getStatus() == AppointmentSlot.Status.AVAILABLE)
+            @RequestParam(required = false) String timezone,
+            @RequestParam(required = false) Double latitude,
+            @RequestParam(required = false) Double longitude,
+            @RequestParam(required = false) String near_zip,
+            @RequestParam(required = false, defaultValue = "25") double radius_km) {
+        APIResponse<List<?>> resp = new APIResponse<>();
+        SlotSearchCriteria criteria;
+        try {
+            criteria = searchCriteria(start_date, end_date, specialization, location, appointment_type,
+                insurance_accepted, max_price, available_only, timezone, latitude, longitude, near_zip, radius_km);
+        } catch (IllegalArgumentException ex) {
+            resp.setSuccess(false);
+            resp.setMessage(ex.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(resp);
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<SlotSummary> slots = slotSearchIndex.search(criteria);
+        sample.stop(Timer.builder("slots.search").tag("endpoint", "search").register(meterRegistry));
+        DistributionSummary.builder("slots.search.results").tag("endpoint", "search").register(meterRegistry).record(slots.size());
+        resp.setSuccess(true);
+        resp.setData(inZone(slots, criteria.getZone()));
+        return ResponseEntity.ok(resp);
+    }
+
+    @GetMapping(value = "/api/v1/availability/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Patient slot search streamed as NDJSON, one slot per line (Accept: application/x-ndjson)")
+    public ResponseEntity<StreamingResponseBody> streamSearchSlots(
+            @RequestParam LocalDate start_date,
+            @RequestParam LocalDate end_date,
+            @RequestParam(required = false) String specialization,
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) String appointment_type,
+            @RequestParam(required = false) Boolean insurance_accepted,
+            @RequestParam(required = false) Double max_price,
+            @RequestParam(required = false, defaultValue = "true") boolean available_only,
+            @RequestParam(required = false) String timezone,
+            @RequestParam(required = false) Double latitude,
+            @RequestParam(required = false) Double longitude,
+            @RequestParam(required = false) String near_zip,
+            @RequestParam(required = false, defaultValue = "25") double radius_km) {
+        SlotSearchCriteria criteria;
+        try {
+            criteria = searchCriteria(start_date, end_date, specialization, location, appointment_type,
+                insurance_accepted, max_price, available_only, timezone, latitude, longitude, near_zip, radius_km);
+        } catch (IllegalArgumentException ex) {
+            return badNdjsonRequest(ex.getMessage());
+        }
+        StreamingResponseBody body = out -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try (NdjsonWriter writer = new NdjsonWriter(objectMapper, out)) {
+                slotSearchIndex.search(criteria, slot -> writer.write(slot.inZone(criteria.getZone())));
+                sample.stop(Timer.builder("slots.search").tag("endpoint", "search_stream").register(meterRegistry));
+                DistributionSummary.builder("slots.search.results").tag("endpoint", "search_stream").register(meterRegistry)
+                    .record(writer.getCount());
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping("/api/v1/availability/summary")
+    @Operation(summary = "Slot counts per provider and day (UTC) for a calendar view, by status",
+               description = "Filter by provider_id or specialization; the range may span at most 366 days")
+    public ResponseEntity<APIResponse<List<SlotDayCount>>> summarizeSlots(
+            @RequestParam LocalDate start_date,
+            @RequestParam LocalDate end_date,
+            @RequestParam(required = false) UUID provider_id,
+            @RequestParam(required = false) String specialization) {
+        APIResponse<List<SlotDayCount>> resp = new APIResponse<>();
+        if (end_date.isBefore(start_date) || ChronoUnit.DAYS.between(start_date, end_date) >= MAX_SUMMARY_DAYS) {
+            resp.setSuccess(false);
+            resp.setMessage("Invalid date range");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(resp);
+        }
+        ProviderSpecialization providerSpecialization = null;
+        if (specialization != null && !specialization.isBlank()) {
+            try {
+                providerSpecialization = ProviderSpecialization.valueOf(specialization.toUpperCase());
+            } catch (IllegalArgumentException ex) {
+                resp.setSuccess(false);
+                resp.setMessage("Invalid specialization");
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(resp);
+            }
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<SlotDayCount> days = slotSearchIndex.dayCounts(provider_id, providerSpecialization, start_date, end_date);
+        sample.stop(Timer.builder("slots.search").tag("endpoint", "summary").register(meterRegistry));
+        resp.setSuccess(true);
+        resp.setData(days);
+        return ResponseEntity.ok(resp);
+    }
+
+    @GetMapping("/api/v1/availability/free")
+    @Operation(summary = "Blocks of time in which all the given providers are free",
+               description = "Answered from the per-day busy/free bitmaps of the search index. Up to 20 providers and " +
+                   "31 days; block_minutes must be a multiple of 5 up to 180. Days are local to timezone (default UTC)")
+    public ResponseEntity<APIResponse<List<FreeBlock>>> freeBlocks(
+            @RequestParam List<UUID> provider_id,
+            @RequestParam LocalDate start_date,
+            @RequestParam LocalDate end_date,
+            @RequestParam(required = false) String timezone,
+            @RequestParam(defaultValue = "30") int block_minutes) {
+        APIResponse<List<FreeBlock>> resp = new APIResponse<>();
+        String error = null;
+        ZoneId zone = null;
+        if (provider_id.isEmpty() || provider_id.size() > MAX_FREE_PROVIDERS) {
+            error = "provider_id must name between 1 and " + MAX_FREE_PROVIDERS + " providers";
+        } else if (end_date.isBefore(start_date) || ChronoUnit.DAYS.between(start_date, end_date) >= MAX_FREE_DAYS) {
+            error = "Invalid date range";
+        } else if (block_minutes < 5 || block_minutes > MAX_BLOCK_MINUTES || block_minutes % 5 != 0) {
+            error = "block_minutes must be a multiple of 5 between 5 and " + MAX_BLOCK_MINUTES;
+        } else {
+            try {
+                zone = zone(timezone);
+            } catch (IllegalArgumentException ex) {
+                error = ex.getMessage();
+            }
+        }
+        if (error != null) {
+            resp.setSuccess(false);
+            resp.setMessage(error);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(resp);
+        }
+        ZoneId outputZone = zone != null ? zone : ZoneOffset.UTC;
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<Instant> starts = slotSearchIndex.freeBlocks(provider_id,
+            Instant.ofEpochSecond(SlotTimes.startOfDay(start_date, zone)),
+            Instant.ofEpochSecond(SlotTimes.startOfDay(end_date.plusDays(1), zone)), block_minutes);
+        List<FreeBlock> blocks = starts.stream()
+            .map(start -> new FreeBlock(OffsetDateTime.ofInstant(start, outputZone),
+                OffsetDateTime.ofInstant(start.plusSeconds(block_minutes * 60L), outputZone)))
             .toList();
-        APIResponse<List<AppointmentSlot>> resp = new APIResponse<>();
+        sample.stop(Timer.builder("slots.search").tag("endpoint", "free").register(meterRegistry));
         resp.setSuccess(true);
-        resp.setData(slots);
+        resp.setData(blocks);
         return ResponseEntity.ok(resp);
     }
+
+    // Throws IllegalArgumentException with the message for the 400 response
+    private SlotSearchCriteria searchCriteria(LocalDate startDate, LocalDate endDate, String specialization,
+                                              String location, String appointmentType, Boolean insuranceAccepted,
+                                              Double maxPrice, boolean availableOnly, String timezone, Double latitude,
+                                              Double longitude, String nearZip, double radiusKm) {
+        SlotSearchCriteria criteria = new SlotSearchCriteria();
+        criteria.setStartDate(startDate);
+        criteria.setEndDate(endDate);
+        criteria.setZone(zone(timezone));
+        if (specialization != null && !specialization.isBlank()) {
+            try {
+                criteria.setSpecialization(ProviderSpecialization.valueOf(specialization.toUpperCase()));
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Invalid specialization");
+            }
+        }
+        // "Near me" by coordinates, or by the centroid of a ZIP code
+        if (latitude != null || longitude != null) {
+            if (latitude == null || longitude == null || Math.abs(latitude) > 90 || Math.abs(longitude) > 180) {
+                throw new IllegalArgumentException("Invalid latitude/longitude");
+            }
+            criteria.setNear(new GeoPoint(latitude, longitude));
+        } else if (nearZip != null && !nearZip.isBlank()) {
+            criteria.setNear(zipCodeGeocoder.locate(nearZip).orElseThrow(() -> new IllegalArgumentException("Unknown ZIP code")));
+        }
+        if (criteria.getNear() != null) {
+            if (!(radiusKm > 0 && radiusKm <= MAX_RADIUS_KM)) {
+                throw new IllegalArgumentException("radius_km must be between 0 and " + MAX_RADIUS_KM);
+            }
+            criteria.setRadiusKm(radiusKm);
+        }
+        criteria.setLocationType(location);
+        criteria.setAppointmentType(appointmentType);
+        criteria.setInsuranceAccepted(insuranceAccepted);
+        criteria.setMaxPrice(maxPrice);
+        criteria.setAvailableOnly(availableOnly);
+        return criteria;
+    }
 } 
\ No newline at end of file
@@ -1,23 +1,33 @@
 package com.healthcare.healthcareproject.controller;
 
+import com.healthcare.healthcareproject.dto.APIResponse;
 import com.healthcare.healthcareproject.dto.ProviderRegistrationRequest;
 import com.healthcare.healthcareproject.dto.ProviderRegistrationResponse;
 import com.healthcare.healthcareproject.dto.FieldErrorResponse;
 import com.healthcare.healthcareproject.dto.ProviderLoginRequest;
 import com.healthcare.healthcareproject.dto.ProviderLoginResponse;
+import com.healthcare.healthcareproject.dto.ProviderSuggestion;
+import com.healthcare.healthcareproject.search.ProviderTypeaheadIndex;
 import com.healthcare.healthcareproject.service.ProviderService;
 import com.healthcare.healthcareproject.service.ProviderService.ProviderRegistrationException;
+import com.healthcare.healthcareproject.security.LoginThrottle;
+import com.healthcare.healthcareproject.security.PasswordHasher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -25,6 +35,14 @@ import java.util.Map;
 public class ProviderController {
     @Autowired
     private ProviderService providerService;
+    @Autowired
+    private LoginThrottle loginThrottle;
+    @Autowired
+    private ProviderTypeaheadIndex providerTypeaheadIndex;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static final int MAX_SUGGESTIONS = 50;
 
     @Operation(summary = "Register a new healthcare provider")
     @ApiResponses(value = {
@@ -50,11 +68,14 @@ public class ProviderController {
     @Operation(summary = "Provider login with email and password")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Login successful"),
+        @ApiResponse(responseCode = "503", description = "Password hashing at capacity, retry later"),
+        @ApiResponse(responseCode = "429", description = "Too many attempts for this account or client"),
         @ApiResponse(responseCode = "401", description = "Invalid credentials or not verified/active"),
         @ApiResponse(responseCode = "400", description = "Validation error")
     })
     @PostMapping("/login")
-    public ResponseEntity<?> loginProvider(@RequestBody @Valid ProviderLoginRequest request) {
+    public ResponseEntity<?> loginProvider(@RequestBody @Valid ProviderLoginRequest request, HttpServletRequest httpRequest) {
+        loginThrottle.acquire(httpRequest.getRemoteAddr(), LoginThrottle.accountKey("provider", request.getEmail()));
         ProviderLoginResponse response = providerService.login(request);
         if (response.isSuccess()) {
             return ResponseEntity.ok(response);
@@ -67,6 +88,26 @@ public class ProviderController {
         }
     }
 
+    @Operation(summary = "Provider typeahead",
+               description = "Every word of q must start a word of the provider's name, specialization or clinic city; best matches first")
+    @GetMapping("/search")
+    public ResponseEntity<APIResponse<List<ProviderSuggestion>>> searchProviders(
+            @RequestParam(required = false, defaultValue = "") String q,
+            @RequestParam(required = false, defaultValue = "10") int limit) {
+        APIResponse<List<ProviderSuggestion>> resp = new APIResponse<>();
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            resp.setSuccess(false);
+            resp.setMessage("limit must be between 1 and " + MAX_SUGGESTIONS);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(resp);
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<ProviderSuggestion> suggestions = providerTypeaheadIndex.suggest(q, limit);
+        sample.stop(Timer.builder("providers.typeahead").register(meterRegistry));
+        resp.setSuccess(true);
+        resp.setData(suggestions);
+        return ResponseEntity.ok(resp);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<FieldErrorResponse> handleValidationExceptions(MethodArgumentNotValidException ex) {
         BindingResult result = ex.getBindingResult();
@@ -75,6 +116,21 @@ public class ProviderController {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new FieldErrorResponse(errors));
     }
 
+    @ExceptionHandler(PasswordHasher.BusyException.class)
+    public ResponseEntity<FieldErrorResponse> handleHasherBusy(PasswordHasher.BusyException ex) {
+        Map<String, String> errors = new HashMap<>();
+        errors.put("error", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(new FieldErrorResponse(errors));
+    }
+
+    @ExceptionHandler(LoginThrottle.ThrottledException.class)
+    public ResponseEntity<FieldErrorResponse> handleThrottled(LoginThrottle.ThrottledException ex) {
+        Map<String, String> errors = new HashMap<>();
+        errors.put("error", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds())).body(new FieldErrorResponse(errors));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<FieldErrorResponse> handleOtherExceptions(Exception ex) {
         Map<String, String> errors = new HashMap<>();
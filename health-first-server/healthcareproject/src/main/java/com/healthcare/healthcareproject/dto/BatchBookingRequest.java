@@ -0,0 +1,20 @@
+package com.healthcare.healthcareproject.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import java.util.UUID;
+
+public class BatchBookingRequest {
+    @NotEmpty
+    @Size(max = 10)
+    private List<@NotNull UUID> slotIds;
+    @NotNull
+    private UUID patientId;
+
+    public List<UUID> getSlotIds() { return slotIds; }
+    public void setSlotIds(List<UUID> slotIds) { this.slotIds = slotIds; }
+    public UUID getPatientId() { return patientId; }
+    public void setPatientId(UUID patientId) { this.patientId = patientId; }
+}
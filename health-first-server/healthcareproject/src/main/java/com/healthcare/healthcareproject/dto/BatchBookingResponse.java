@@ -0,0 +1,41 @@
+package com.healthcare.healthcareproject.dto;
+
+import com.healthcare.healthcareproject.model.AppointmentSlot;
+import java.util.List;
+import java.util.UUID;
+
+public class BatchBookingResponse {
+    private boolean booked;
+    private String bookingReference;
+    private List<SlotResult> results;
+
+    // BOOKED, UNAVAILABLE (taken or blocked), NOT_FOUND, or ROLLED_BACK (free, but released because another slot failed)
+    public enum Outcome { BOOKED, UNAVAILABLE, NOT_FOUND, ROLLED_BACK }
+
+    public static class SlotResult {
+        private UUID slotId;
+        private Outcome outcome;
+        private AppointmentSlot slot;
+
+        public SlotResult() {}
+        public SlotResult(UUID slotId, Outcome outcome, AppointmentSlot slot) {
+            this.slotId = slotId;
+            this.outcome = outcome;
+            this.slot = slot;
+        }
+
+        public UUID getSlotId() { return slotId; }
+        public void setSlotId(UUID slotId) { this.slotId = slotId; }
+        public Outcome getOutcome() { return outcome; }
+        public void setOutcome(Outcome outcome) { this.outcome = outcome; }
+        public AppointmentSlot getSlot() { return slot; }
+        public void setSlot(AppointmentSlot slot) { this.slot = slot; }
+    }
+
+    public boolean isBooked() { return booked; }
+    public void setBooked(boolean booked) { this.booked = booked; }
+    public String getBookingReference() { return bookingReference; }
+    public void setBookingReference(String bookingReference) { this.bookingReference = bookingReference; }
+    public List<SlotResult> getResults() { return results; }
+    public void setResults(List<SlotResult> results) { this.results = results; }
+}
@@ -0,0 +1,7 @@
+package com.healthcare.healthcareproject.dto;
+
+import java.time.OffsetDateTime;
+
+// A block of time in which every requested provider has open slots and nothing booked, blocked or cancelled
+public record FreeBlock(OffsetDateTime start, OffsetDateTime end) {
+}
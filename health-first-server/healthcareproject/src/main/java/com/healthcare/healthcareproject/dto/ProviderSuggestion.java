@@ -0,0 +1,9 @@
+package com.healthcare.healthcareproject.dto;
+
+import com.healthcare.healthcareproject.util.ProviderSpecialization;
+
+import java.util.UUID;
+
+// One typeahead result: enough to render the suggestion and open the provider's slots
+public record ProviderSuggestion(UUID providerId, String name, ProviderSpecialization specialization, String city) {
+}
@@ -0,0 +1,5 @@
+package com.healthcare.healthcareproject.dto;
+
+// Validators for a conditional GET: a weak ETag and the last-modified time in epoch millis (-1 when unknown)
+public record ResourceVersion(String eTag, long lastModified) {
+}
@@ -0,0 +1,8 @@
+package com.healthcare.healthcareproject.dto;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+// Slot counts of one provider on one day (UTC, by slot start), as the portal calendar shows them
+public record SlotDayCount(UUID providerId, LocalDate date, int available, int booked, int cancelled, int blocked) {
+}
@@ -0,0 +1,47 @@
+package com.healthcare.healthcareproject.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.healthcare.healthcareproject.model.AppointmentSlot;
+import com.healthcare.healthcareproject.model.Provider;
+import com.healthcare.healthcareproject.util.ProviderSpecialization;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+
+// A slot as the listings return it: no audit timestamps or booking reference, plus the provider's display name
+// and specialization so the portal needs no per-provider calls. Selected directly by the repository projections.
+// distanceKm is only set (and serialised) by the "near me" search
+public record SlotSummary(UUID id, UUID providerId, String providerName, ProviderSpecialization specialization,
+                          Instant slotStartTime, Instant slotEndTime, AppointmentSlot.Status status, String appointmentType,
+                          @JsonInclude(JsonInclude.Include.NON_NULL) Double distanceKm) {
+
+    public SlotSummary(UUID id, UUID providerId, String providerName, ProviderSpecialization specialization,
+                       Instant slotStartTime, Instant slotEndTime, AppointmentSlot.Status status, String appointmentType) {
+        this(id, providerId, providerName, specialization, slotStartTime, slotEndTime, status, appointmentType, null);
+    }
+
+    public static SlotSummary of(AppointmentSlot slot, Provider provider) {
+        return new SlotSummary(slot.getId(), slot.getProviderId(), displayName(provider),
+            provider != null ? provider.getSpecialization() : null,
+            slot.getSlotStartTime(), slot.getSlotEndTime(), slot.getStatus(), slot.getAppointmentType());
+    }
+
+    // The row as sent to a request that named a time zone: the same fields, with the times written at that zone's
+    // offset. Only built at the response edge; everything before it works on the instants
+    public Object inZone(ZoneId zone) {
+        return zone == null ? this
+            : new Zoned(this, OffsetDateTime.ofInstant(slotStartTime, zone), OffsetDateTime.ofInstant(slotEndTime, zone));
+    }
+
+    public record Zoned(@JsonUnwrapped @JsonIgnoreProperties({"slotStartTime", "slotEndTime"}) SlotSummary slot,
+                        OffsetDateTime slotStartTime, OffsetDateTime slotEndTime) {
+    }
+
+    public static String displayName(Provider provider) {
+        return provider != null ? provider.getFirstName() + " " + provider.getLastName() : null;
+    }
+}
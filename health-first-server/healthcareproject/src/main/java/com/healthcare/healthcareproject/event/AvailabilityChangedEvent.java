@@ -0,0 +1,14 @@
+package com.healthcare.healthcareproject.event;
+
+import com.healthcare.healthcareproject.model.ProviderAvailability;
+
+// Published when an availability (and, for lazy availability, its slot rule) is created or changed
+public class AvailabilityChangedEvent {
+    private final ProviderAvailability availability;
+
+    public AvailabilityChangedEvent(ProviderAvailability availability) {
+        this.availability = availability;
+    }
+
+    public ProviderAvailability getAvailability() { return availability; }
+}
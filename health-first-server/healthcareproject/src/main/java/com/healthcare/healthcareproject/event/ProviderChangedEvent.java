@@ -0,0 +1,14 @@
+package com.healthcare.healthcareproject.event;
+
+import com.healthcare.healthcareproject.model.Provider;
+
+// Published when a provider is registered or its profile changes
+public class ProviderChangedEvent {
+    private final Provider provider;
+
+    public ProviderChangedEvent(Provider provider) {
+        this.provider = provider;
+    }
+
+    public Provider getProvider() { return provider; }
+}
@@ -0,0 +1,35 @@
+package com.healthcare.healthcareproject.event;
+
+import com.healthcare.healthcareproject.model.AppointmentSlot;
+import java.util.List;
+
+// Published whenever appointment slots are created, updated or deleted so in-memory views can follow along
+public class SlotChangedEvent {
+    public enum ChangeType { CREATED, UPDATED, DELETED }
+
+    private final ChangeType type;
+    private final List<AppointmentSlot> slots;
+    private final AppointmentSlot.Status previousStatus;
+
+    public SlotChangedEvent(ChangeType type, List<AppointmentSlot> slots, AppointmentSlot.Status previousStatus) {
+        this.type = type;
+        this.slots = slots;
+        this.previousStatus = previousStatus;
+    }
+
+    public static SlotChangedEvent created(List<AppointmentSlot> slots) {
+        return new SlotChangedEvent(ChangeType.CREATED, slots, null);
+    }
+
+    public static SlotChangedEvent updated(AppointmentSlot slot, AppointmentSlot.Status previousStatus) {
+        return new SlotChangedEvent(ChangeType.UPDATED, List.of(slot), previousStatus);
+    }
+
+    public static SlotChangedEvent deleted(AppointmentSlot slot) {
+        return new SlotChangedEvent(ChangeType.DELETED, List.of(slot), slot.getStatus());
+    }
+
+    public ChangeType getType() { return type; }
+    public List<AppointmentSlot> getSlots() { return slots; }
+    public AppointmentSlot.Status getPreviousStatus() { return previousStatus; }
+}
@@ -0,0 +1,60 @@
+package com.healthcare.healthcareproject.geo;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Geocodes US ZIP codes to their centroid from a local CSV (zip,latitude,longitude), so no external service is called.
+// healthcare.geo.zip-centroids names the file; the bundled one holds a sample of ZIPs, and the Census ZCTA gazetteer
+// converted to the same three columns can replace it
+@Component
+public class ZipCodeGeocoder {
+    private static final Logger log = LoggerFactory.getLogger(ZipCodeGeocoder.class);
+    private static final Pattern ZIP = Pattern.compile("\\b(\\d{5})(?:-\\d{4})?\\b");
+
+    @Value("${healthcare.geo.zip-centroids:classpath:geo/zip-centroids.csv}")
+    private Resource centroids;
+
+    private final Map<String, GeoPoint> pointsByZip = new HashMap<>();
+
+    @PostConstruct
+    void load() throws IOException {
+        if (!centroids.exists()) {
+            log.warn("ZIP centroid file {} not found, locations will not be geocoded", centroids);
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(centroids.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                if (fields.length < 3 || !ZIP.matcher(fields[0].trim()).matches()) continue;
+                pointsByZip.put(fields[0].trim(), new GeoPoint(Double.parseDouble(fields[1].trim()), Double.parseDouble(fields[2].trim())));
+            }
+        }
+        log.info("Loaded {} ZIP centroids from {}", pointsByZip.size(), centroids);
+    }
+
+    // Centroid of the ZIP code in the text: a bare ZIP, ZIP+4 or a free-text address (its last five-digit group,
+    // since street numbers come first)
+    public Optional<GeoPoint> locate(String text) {
+        if (text == null) return Optional.empty();
+        String zip = null;
+        for (Matcher matcher = ZIP.matcher(text); matcher.find(); ) {
+            zip = matcher.group(1);
+        }
+        return zip != null ? Optional.ofNullable(pointsByZip.get(zip)) : Optional.empty();
+    }
+}
@@ -6,11 +6,14 @@ import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import java.time.Instant;
-import java.time.ZonedDateTime;
 import java.util.UUID;
 
 @Entity
 @EntityListeners(AuditingEntityListener.class)
+@Table(indexes = {
+    @Index(name = "idx_slot_provider_status_start", columnList = "providerId, status, slotStartTime"),
+    @Index(name = "idx_slot_status_start", columnList = "status, slotStartTime")
+})
 public class AppointmentSlot {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -22,11 +25,13 @@ public class AppointmentSlot {
     @NotNull
     private UUID providerId;
 
+    // Stored as instants (timestamp with time zone, as before); wall-clock times only exist on the availability rule
+    // and in responses that ask for a time zone
     @NotNull
-    private ZonedDateTime slotStartTime;
+    private Instant slotStartTime;
 
     @NotNull
-    private ZonedDateTime slotEndTime;
+    private Instant slotEndTime;
 
     @Enumerated(EnumType.STRING)
     private Status status = Status.AVAILABLE;
@@ -52,10 +57,10 @@ public class AppointmentSlot {
     public void setAvailabilityId(UUID availabilityId) { this.availabilityId = availabilityId; }
     public UUID getProviderId() { return providerId; }
     public void setProviderId(UUID providerId) { this.providerId = providerId; }
-    public ZonedDateTime getSlotStartTime() { return slotStartTime; }
-    public void setSlotStartTime(ZonedDateTime slotStartTime) { this.slotStartTime = slotStartTime; }
-    public ZonedDateTime getSlotEndTime() { return slotEndTime; }
-    public void setSlotEndTime(ZonedDateTime slotEndTime) { this.slotEndTime = slotEndTime; }
+    public Instant getSlotStartTime() { return slotStartTime; }
+    public void setSlotStartTime(Instant slotStartTime) { this.slotStartTime = slotStartTime; }
+    public Instant getSlotEndTime() { return slotEndTime; }
+    public void setSlotEndTime(Instant slotEndTime) { this.slotEndTime = slotEndTime; }
     public Status getStatus() { return status; }
     public void setStatus(Status status) { this.status = status; }
     public UUID getPatientId() { return patientId; }
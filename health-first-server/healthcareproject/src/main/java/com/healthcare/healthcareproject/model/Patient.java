@@ -1,6 +1,8 @@
 package com.healthcare.healthcareproject.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import jakarta.validation.constraints.*;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
@@ -12,6 +14,11 @@ import java.util.UUID;
 
 @Entity
 @EntityListeners(AuditingEntityListener.class)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "patient")
+@Table(uniqueConstraints = {
+    @UniqueConstraint(name = "uk_patient_email", columnNames = "email"),
+    @UniqueConstraint(name = "uk_patient_phone_number", columnNames = "phone_number")
+})
 public class Patient {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -27,12 +34,10 @@ public class Patient {
 
     @NotBlank
     @Email
-    @Column(unique = true)
     private String email;
 
     @NotBlank
     @Pattern(regexp = "^\\+\\d{10,15}$", message = "Invalid E.164 phone format")
-    @Column(unique = true)
     private String phoneNumber;
 
     @NotBlank
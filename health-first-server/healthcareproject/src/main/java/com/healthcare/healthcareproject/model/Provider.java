@@ -5,12 +5,22 @@ import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import jakarta.validation.constraints.*;
 import java.time.Instant;
 import java.util.UUID;
 
 @Entity
 @EntityListeners(AuditingEntityListener.class)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "provider")
+@Table(uniqueConstraints = {
+    @UniqueConstraint(name = "uk_provider_email", columnNames = "email"),
+    @UniqueConstraint(name = "uk_provider_phone_number", columnNames = "phone_number"),
+    @UniqueConstraint(name = "uk_provider_license_number", columnNames = "license_number")
+}, indexes = {
+    @Index(name = "idx_provider_specialization", columnList = "specialization")
+})
 public class Provider {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -26,12 +36,10 @@ public class Provider {
 
     @NotBlank
     @Email
-    @Column(unique = true)
     private String email;
 
     @NotBlank
     @Pattern(regexp = "^\\+\\d{10,15}$", message = "Invalid E.164 phone format")
-    @Column(unique = true)
     private String phoneNumber;
 
     @NotBlank
@@ -43,7 +51,6 @@ public class Provider {
 
     @NotBlank
     @Pattern(regexp = "^[a-zA-Z0-9]+$", message = "License must be alphanumeric")
-    @Column(unique = true)
     private String licenseNumber;
 
     @Min(0)
@@ -113,6 +120,9 @@ public class Provider {
         @NotBlank
         @Size(max = 20)
         private String zip;
+        // ZIP centroid, set at registration (see ZipCodeGeocoder)
+        private Double latitude;
+        private Double longitude;
         // Getters and setters
         public String getStreet() { return street; }
         public void setStreet(String street) { this.street = street; }
@@ -122,5 +132,9 @@ public class Provider {
         public void setState(String state) { this.state = state; }
         public String getZip() { return zip; }
         public void setZip(String zip) { this.zip = zip; }
+        public Double getLatitude() { return latitude; }
+        public void setLatitude(Double latitude) { this.latitude = latitude; }
+        public Double getLongitude() { return longitude; }
+        public void setLongitude(Double longitude) { this.longitude = longitude; }
     }
 } 
\ No newline at end of file
@@ -7,11 +7,16 @@ import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Entity
 @EntityListeners(AuditingEntityListener.class)
+@Table(indexes = {
+    @Index(name = "idx_availability_materialization_provider_date", columnList = "materialization, providerId, date")
+})
 public class ProviderAvailability {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -69,6 +74,20 @@ public class ProviderAvailability {
     @ElementCollection
     private List<String> specialRequirements;
 
+    // EAGER rules have one AppointmentSlot row per slot; LAZY rules only store booked/blocked slots as rows
+    @Enumerated(EnumType.STRING)
+    private SlotMaterialization materialization = SlotMaterialization.EAGER;
+
+    // Random key embedded in the ids of slots computed from a LAZY rule
+    @Column(unique = true)
+    private Long slotKey;
+
+    // Start (epoch minute) of LAZY rule slots that were deleted
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "provider_availability_excluded_slot")
+    @Column(name = "slot_start_minute")
+    private Set<Long> excludedSlotStarts = new HashSet<>();
+
     @CreatedDate
     private Instant createdAt;
 
@@ -78,6 +97,7 @@ public class ProviderAvailability {
     public enum RecurrencePattern { DAILY, WEEKLY, MONTHLY }
     public enum Status { AVAILABLE, BOOKED, CANCELLED, BLOCKED, MAINTENANCE }
     public enum AppointmentType { CONSULTATION, FOLLOW_UP, EMERGENCY, TELEMEDICINE }
+    public enum SlotMaterialization { EAGER, LAZY }
 
     @Embeddable
     public static class Location {
@@ -86,6 +106,9 @@ public class ProviderAvailability {
         @NotBlank
         private String address;
         private String roomNumber;
+        // Centroid of the ZIP in the address when it has one; otherwise the provider's clinic stands in
+        private Double latitude;
+        private Double longitude;
         // Getters and setters
         public String getType() { return type; }
         public void setType(String type) { this.type = type; }
@@ -93,6 +116,10 @@ public class ProviderAvailability {
         public void setAddress(String address) { this.address = address; }
         public String getRoomNumber() { return roomNumber; }
         public void setRoomNumber(String roomNumber) { this.roomNumber = roomNumber; }
+        public Double getLatitude() { return latitude; }
+        public void setLatitude(Double latitude) { this.latitude = latitude; }
+        public Double getLongitude() { return longitude; }
+        public void setLongitude(Double longitude) { this.longitude = longitude; }
     }
 
     @Embeddable
@@ -149,6 +176,12 @@ public class ProviderAvailability {
     public void setNotes(String notes) { this.notes = notes; }
     public List<String> getSpecialRequirements() { return specialRequirements; }
     public void setSpecialRequirements(List<String> specialRequirements) { this.specialRequirements = specialRequirements; }
+    public SlotMaterialization getMaterialization() { return materialization; }
+    public void setMaterialization(SlotMaterialization materialization) { this.materialization = materialization; }
+    public Long getSlotKey() { return slotKey; }
+    public void setSlotKey(Long slotKey) { this.slotKey = slotKey; }
+    public Set<Long> getExcludedSlotStarts() { return excludedSlotStarts; }
+    public void setExcludedSlotStarts(Set<Long> excludedSlotStarts) { this.excludedSlotStarts = excludedSlotStarts; }
     public Instant getCreatedAt() { return createdAt; }
     public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
     public Instant getUpdatedAt() { return updatedAt; }
@@ -1,11 +1,24 @@
 package com.healthcare.healthcareproject.repository;
 
+import com.healthcare.healthcareproject.dto.SlotSummary;
 import com.healthcare.healthcareproject.model.AppointmentSlot;
+import com.healthcare.healthcareproject.util.ProviderSpecialization;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface AppointmentSlotRepository extends JpaRepository<AppointmentSlot, UUID> {
     List<AppointmentSlot> findByProviderId(UUID providerId);
@@ -13,4 +26,140 @@ public interface AppointmentSlotRepository extends JpaRepository<AppointmentSlot
 
     Page<AppointmentSlot> findByProviderIdAndStatus(UUID providerId, AppointmentSlot.Status status, Pageable pageable);
     Page<AppointmentSlot> findByStatus(AppointmentSlot.Status status, Pageable pageable);
-} 
\ No newline at end of file
+
+    // Slot listings select SlotSummary rows directly, joined to the provider for its display name and specialization
+    String SUMMARY = "select new com.healthcare.healthcareproject.dto.SlotSummary(s.id, s.providerId," +
+                     " concat(p.firstName, ' ', p.lastName), p.specialization, s.slotStartTime, s.slotEndTime," +
+                     " s.status, s.appointmentType) from AppointmentSlot s left join Provider p on p.id = s.providerId";
+
+    // Range queries over (providerId, status, slotStartTime); a slot matches when it starts at or after :from
+    // and ends before :to, and the redundant start bound keeps the scan on the index range
+    @Query(SUMMARY + " where s.providerId = :providerId and s.status in :statuses" +
+           " and s.slotStartTime >= :from and s.slotStartTime < :to and s.slotEndTime < :to order by s.slotStartTime")
+    List<SlotSummary> findSummariesInRange(UUID providerId, Collection<AppointmentSlot.Status> statuses,
+                                           Instant from, Instant to);
+
+    @Query(SUMMARY + " where s.status in :statuses" +
+           " and s.slotStartTime >= :from and s.slotStartTime < :to and s.slotEndTime < :to order by s.slotStartTime")
+    List<SlotSummary> findSummariesInRange(Collection<AppointmentSlot.Status> statuses, Instant from, Instant to);
+
+    // Specialization variants: the provider join is filtered first (idx_provider_specialization), and each matching
+    // provider's slots are then read through (providerId, status, slotStartTime) like a single-provider listing
+    @Query(SUMMARY + " where p.specialization = :specialization and s.status in :statuses" +
+           " and s.slotStartTime >= :from and s.slotStartTime < :to and s.slotEndTime < :to order by s.slotStartTime")
+    List<SlotSummary> findSummariesInRange(ProviderSpecialization specialization, Collection<AppointmentSlot.Status> statuses,
+                                           Instant from, Instant to);
+
+    // Cursor variants for the NDJSON endpoints; rows are fetched in batches of the fetch size,
+    // so the caller must stay in a transaction and close the stream
+    @Query(SUMMARY + " where s.providerId = :providerId and s.status in :statuses" +
+           " and s.slotStartTime >= :from and s.slotStartTime < :to and s.slotEndTime < :to order by s.slotStartTime")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<SlotSummary> streamSummariesInRange(UUID providerId, Collection<AppointmentSlot.Status> statuses,
+                                               Instant from, Instant to);
+
+    @Query(SUMMARY + " where s.status in :statuses" +
+           " and s.slotStartTime >= :from and s.slotStartTime < :to and s.slotEndTime < :to order by s.slotStartTime")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<SlotSummary> streamSummariesInRange(Collection<AppointmentSlot.Status> statuses, Instant from, Instant to);
+
+    @Query(SUMMARY + " where p.specialization = :specialization and s.status in :statuses" +
+           " and s.slotStartTime >= :from and s.slotStartTime < :to and s.slotEndTime < :to order by s.slotStartTime")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<SlotSummary> streamSummariesInRange(ProviderSpecialization specialization, Collection<AppointmentSlot.Status> statuses,
+                                               Instant from, Instant to);
+
+    @Query(SUMMARY + " where s.providerId = :providerId and s.status in :statuses" +
+           " and s.slotStartTime >= :from and s.slotStartTime < :to and s.slotEndTime < :to order by s.slotStartTime, s.id")
+    Slice<SlotSummary> findSummarySliceInRange(UUID providerId, Collection<AppointmentSlot.Status> statuses,
+                                               Instant from, Instant to, Pageable pageable);
+
+    @Query(SUMMARY + " where s.status in :statuses" +
+           " and s.slotStartTime >= :from and s.slotStartTime < :to and s.slotEndTime < :to order by s.slotStartTime, s.id")
+    Slice<SlotSummary> findSummarySliceInRange(Collection<AppointmentSlot.Status> statuses,
+                                               Instant from, Instant to, Pageable pageable);
+
+    @Query(SUMMARY + " where p.specialization = :specialization and s.status in :statuses" +
+           " and s.slotStartTime >= :from and s.slotStartTime < :to and s.slotEndTime < :to order by s.slotStartTime, s.id")
+    Slice<SlotSummary> findSummarySliceInRange(ProviderSpecialization specialization, Collection<AppointmentSlot.Status> statuses,
+                                               Instant from, Instant to, Pageable pageable);
+
+    // Any insert, update (booking included) or delete of a provider's slot in the range moves the count or the
+    // latest updatedAt; deletes also touch their availability, see ProviderAvailabilityRepository.findVersion
+    @Query("select count(s) as count, max(s.updatedAt) as lastModified from AppointmentSlot s where s.providerId = :providerId" +
+           " and s.slotStartTime >= :from and s.slotStartTime < :to and s.slotEndTime < :to")
+    RowVersion findVersionInRange(UUID providerId, Instant from, Instant to);
+
+    // Slots of a provider overlapping [from, to); scanFrom is from minus the longest slot so the start column bounds the scan
+    @Query("select s from AppointmentSlot s where s.providerId = :providerId and s.status in :statuses" +
+           " and s.slotStartTime >= :scanFrom and s.slotStartTime < :to and s.slotEndTime > :from order by s.slotStartTime")
+    List<AppointmentSlot> findOverlapping(UUID providerId, Collection<AppointmentSlot.Status> statuses,
+                                          Instant scanFrom, Instant from, Instant to);
+
+    @Query("select s from AppointmentSlot s where s.providerId in :providerIds and s.status in :statuses" +
+           " and s.slotStartTime >= :scanFrom and s.slotStartTime < :to and s.slotEndTime > :from order by s.slotStartTime")
+    List<AppointmentSlot> findOverlapping(Collection<UUID> providerIds, Collection<AppointmentSlot.Status> statuses,
+                                          Instant scanFrom, Instant from, Instant to);
+
+    @Query(value = "select s from AppointmentSlot s where s.providerId = :providerId and s.status = :status" +
+                   " and s.slotStartTime >= :from and s.slotStartTime < :to and s.slotEndTime < :to",
+           countQuery = "select count(s) from AppointmentSlot s where s.providerId = :providerId and s.status = :status" +
+                   " and s.slotStartTime >= :from and s.slotStartTime < :to and s.slotEndTime < :to")
+    Page<AppointmentSlot> findPageInRange(UUID providerId, AppointmentSlot.Status status,
+                                          Instant from, Instant to, Pageable pageable);
+
+    @Query(value = "select s from AppointmentSlot s where s.status = :status" +
+                   " and s.slotStartTime >= :from and s.slotStartTime < :to and s.slotEndTime < :to",
+           countQuery = "select count(s) from AppointmentSlot s where s.status = :status" +
+                   " and s.slotStartTime >= :from and s.slotStartTime < :to and s.slotEndTime < :to")
+    Page<AppointmentSlot> findPageInRange(AppointmentSlot.Status status, Instant from, Instant to, Pageable pageable);
+
+    // Keyset pages, newest first: rows strictly before the (slotStartTime, id) cursor of the previous page
+    @Query("select s from AppointmentSlot s where s.providerId = :providerId and s.status = :status" +
+           " and s.slotStartTime >= :from and s.slotStartTime < :to and s.slotEndTime < :to" +
+           " and (s.slotStartTime < :cursorStart or (s.slotStartTime = :cursorStart and s.id < :cursorId))" +
+           " order by s.slotStartTime desc, s.id desc")
+    List<AppointmentSlot> findPageBefore(UUID providerId, AppointmentSlot.Status status, Instant from, Instant to,
+                                         Instant cursorStart, UUID cursorId, Limit limit);
+
+    @Query("select s from AppointmentSlot s where s.status = :status" +
+           " and s.slotStartTime >= :from and s.slotStartTime < :to and s.slotEndTime < :to" +
+           " and (s.slotStartTime < :cursorStart or (s.slotStartTime = :cursorStart and s.id < :cursorId))" +
+           " order by s.slotStartTime desc, s.id desc")
+    List<AppointmentSlot> findPageBefore(AppointmentSlot.Status status, Instant from, Instant to,
+                                         Instant cursorStart, UUID cursorId, Limit limit);
+
+    @Query("select count(s) from AppointmentSlot s where s.providerId = :providerId and s.status = :status" +
+           " and s.slotStartTime >= :from and s.slotStartTime < :to and s.slotEndTime < :to")
+    long countInRange(UUID providerId, AppointmentSlot.Status status, Instant from, Instant to);
+
+    @Query("select count(s) from AppointmentSlot s where s.status = :status" +
+           " and s.slotStartTime >= :from and s.slotStartTime < :to and s.slotEndTime < :to")
+    long countInRange(AppointmentSlot.Status status, Instant from, Instant to);
+
+    // Books the slot only if it is still AVAILABLE, as one statement; returns the number of rows booked (0 or 1)
+    @Transactional
+    @Modifying
+    @Query(value = "update appointment_slot set status = 'BOOKED', patient_id = :patientId, booking_reference = :bookingReference," +
+                   " updated_at = :updatedAt where id = :id and status = 'AVAILABLE'", nativeQuery = true)
+    int book(UUID id, UUID patientId, String bookingReference, Instant updatedAt);
+
+    // Set-based variant for batch booking: books every listed slot that is still AVAILABLE
+    @Transactional
+    @Modifying
+    @Query(value = "update appointment_slot set status = 'BOOKED', patient_id = :patientId, booking_reference = :bookingReference," +
+                   " updated_at = :updatedAt where id in (:ids) and status = 'AVAILABLE'", nativeQuery = true)
+    int bookAll(Collection<UUID> ids, UUID patientId, String bookingReference, Instant updatedAt);
+
+    @Query("select s from AppointmentSlot s")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<AppointmentSlot> streamAll();
+
+    // Rows written since the given time, for the search index's catch-up with other instances' writes
+    @Query("select s from AppointmentSlot s where s.updatedAt >= :since")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<AppointmentSlot> streamUpdatedSince(Instant since);
+
+    @Query("select s.id from AppointmentSlot s where s.availabilityId in :availabilityIds")
+    List<UUID> findIdsByAvailabilityIds(Collection<UUID> availabilityIds);
+}
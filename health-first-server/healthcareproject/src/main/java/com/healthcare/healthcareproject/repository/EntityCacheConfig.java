@@ -0,0 +1,96 @@
+package com.healthcare.healthcareproject.repository;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Hibernate second-level cache for Provider and Patient plus the query cache behind their findBy* lookups, held in
+// local Caffeine caches bounded by size and time-to-live. Writes through Hibernate update or evict the entries, and
+// any insert/update of a table invalidates the cached queries over it; the TTL bounds how long another instance's
+// writes can go unseen
+@Configuration
+@ConditionalOnProperty(name = "healthcare.cache.entity.enabled", havingValue = "true", matchIfMissing = true)
+public class EntityCacheConfig {
+    private static final List<String> ENTITY_REGIONS = List.of("provider", "patient");
+
+    @Value("${healthcare.cache.entity.max-size:10000}")
+    private long maxSize;
+    @Value("${healthcare.cache.entity.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    // The caching provider keeps managers per URI for the whole JVM, so each application context gets its own URI:
+    // a second context (another test configuration) would otherwise find the regions already created, and closing
+    // one context would close the other's caches
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager() {
+        CacheManager manager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+            .getCacheManager(URI.create("healthcare-entity-cache-" + UUID.randomUUID()), getClass().getClassLoader(), new Properties());
+        for (String region : ENTITY_REGIONS) {
+            manager.createCache(region, bounded());
+        }
+        manager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, bounded());
+        // Update timestamps must outlive every cached query result, so this region is never evicted
+        manager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, new CaffeineConfiguration<>());
+        return manager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheProperties(CacheManager entityCacheManager) {
+        return properties -> {
+            properties.put("hibernate.cache.use_second_level_cache", true);
+            properties.put("hibernate.cache.use_query_cache", true);
+            properties.put("hibernate.cache.region.factory_class", "jcache");
+            properties.put("hibernate.javax.cache.cache_manager", entityCacheManager);
+            properties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+        };
+    }
+
+    // entity.cache.hit.ratio{region}: hits / (hits + misses) since startup, from Hibernate statistics
+    @Bean
+    public MeterBinder entityCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        return registry -> {
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            List<String> regions = new ArrayList<>(ENTITY_REGIONS);
+            regions.add(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+            for (String region : regions) {
+                Gauge.builder("entity.cache.hit.ratio", statistics, s -> hitRatio(s.getCacheRegionStatistics(region)))
+                    .tag("region", region)
+                    .register(registry);
+            }
+        };
+    }
+
+    private static double hitRatio(CacheRegionStatistics region) {
+        if (region == null) return 0;
+        long requests = region.getHitCount() + region.getMissCount();
+        return requests == 0 ? 0 : (double) region.getHitCount() / requests;
+    }
+
+    private CaffeineConfiguration<Object, Object> bounded() {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+        return configuration;
+    }
+}
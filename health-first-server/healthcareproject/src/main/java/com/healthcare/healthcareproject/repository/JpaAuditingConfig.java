@@ -0,0 +1,11 @@
+package com.healthcare.healthcareproject.repository;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+
+// Fills the @CreatedDate/@LastModifiedDate columns of the entities; slot and availability updatedAt values
+// are also what the conditional GET validators of the availability endpoint are built from
+@Configuration
+@EnableJpaAuditing
+public class JpaAuditingConfig {
+}
@@ -1,11 +1,26 @@
 package com.healthcare.healthcareproject.repository;
 
 import com.healthcare.healthcareproject.model.Patient;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+// Lookups by unique key go through the query cache; any write to the patient table invalidates those results
 public interface PatientRepository extends JpaRepository<Patient, UUID> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Patient> findByEmail(String email);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Patient> findByPhoneNumber(String phoneNumber);
-} 
\ No newline at end of file
+
+    // Registration duplicate check: every patient holding the email or the phone number, in one query
+    List<UniqueKeys> findUniqueKeysByEmailOrPhoneNumber(String email, String phoneNumber);
+
+    interface UniqueKeys {
+        String getEmail();
+        String getPhoneNumber();
+    }
+}
@@ -1,10 +1,45 @@
 package com.healthcare.healthcareproject.repository;
 
 import com.healthcare.healthcareproject.model.ProviderAvailability;
+import com.healthcare.healthcareproject.util.ProviderSpecialization;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface ProviderAvailabilityRepository extends JpaRepository<ProviderAvailability, UUID> {
     List<ProviderAvailability> findByProviderId(UUID providerId);
+    Optional<ProviderAvailability> findBySlotKey(Long slotKey);
+    List<ProviderAvailability> findByMaterialization(ProviderAvailability.SlotMaterialization materialization);
+    // Also picks up slot deletions, which touch their availability
+    List<ProviderAvailability> findByUpdatedAtGreaterThanEqual(Instant since);
+
+    // Rules whose recurrence may produce slots between the two dates
+    @Query("select a from ProviderAvailability a where a.materialization = :materialization and a.providerId = :providerId" +
+           " and a.date <= :to and coalesce(a.recurrenceEndDate, a.date) >= :from")
+    List<ProviderAvailability> findRules(ProviderAvailability.SlotMaterialization materialization, UUID providerId,
+                                         LocalDate from, LocalDate to);
+
+    @Query("select a from ProviderAvailability a where a.materialization = :materialization" +
+           " and a.date <= :to and coalesce(a.recurrenceEndDate, a.date) >= :from")
+    List<ProviderAvailability> findRules(ProviderAvailability.SlotMaterialization materialization, LocalDate from, LocalDate to);
+
+    @Query("select a from ProviderAvailability a join Provider p on p.id = a.providerId where p.specialization = :specialization" +
+           " and a.materialization = :materialization and a.date <= :to and coalesce(a.recurrenceEndDate, a.date) >= :from")
+    List<ProviderAvailability> findRules(ProviderAvailability.SlotMaterialization materialization,
+                                         ProviderSpecialization specialization, LocalDate from, LocalDate to);
+
+    @Query("select count(a) as count, max(a.updatedAt) as lastModified from ProviderAvailability a where a.providerId = :providerId")
+    RowVersion findVersion(UUID providerId);
+
+    // Marks the availability as changed without loading it, e.g. when one of its slots is deleted
+    @Transactional
+    @Modifying
+    @Query("update ProviderAvailability a set a.updatedAt = :updatedAt where a.id = :id")
+    int touch(UUID id, Instant updatedAt);
 } 
\ No newline at end of file
@@ -1,12 +1,29 @@
 package com.healthcare.healthcareproject.repository;
 
 import com.healthcare.healthcareproject.model.Provider;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+// Lookups by unique key go through the query cache; any write to the provider table invalidates those results
 public interface ProviderRepository extends JpaRepository<Provider, UUID> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Provider> findByEmail(String email);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Provider> findByPhoneNumber(String phoneNumber);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Provider> findByLicenseNumber(String licenseNumber);
-} 
\ No newline at end of file
+
+    // Registration duplicate check: every provider holding any of the three unique keys, in one query
+    List<UniqueKeys> findUniqueKeysByEmailOrPhoneNumberOrLicenseNumber(String email, String phoneNumber, String licenseNumber);
+
+    interface UniqueKeys {
+        String getEmail();
+        String getPhoneNumber();
+        String getLicenseNumber();
+    }
+}
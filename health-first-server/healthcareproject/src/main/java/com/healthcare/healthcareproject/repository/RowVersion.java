@@ -0,0 +1,9 @@
+package com.healthcare.healthcareproject.repository;
+
+import java.time.Instant;
+
+// Row count and latest updatedAt of a set of rows, for conditional GET validators
+public interface RowVersion {
+    long getCount();
+    Instant getLastModified();
+}
@@ -0,0 +1,69 @@
+package com.healthcare.healthcareproject.search;
+
+import com.healthcare.healthcareproject.geo.GeoPoint;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Provider ids bucketed by the 0.1 x 0.1 degree cell (about 11 km north-south) of each of their locations. A radius
+// query reads only the cells of the circle's bounding box and returns candidates for an exact distance check, so it
+// never misses one. Points are not removed: a moved location leaves a stale candidate that the check then drops
+final class GeoGrid {
+    private static final double CELL_DEGREES = 0.1;
+    private static final int LON_CELLS = (int) Math.round(360 / CELL_DEGREES);
+    private static final double KM_PER_DEGREE = 111.32;
+    // Beyond this many cells (a radius of several hundred km) reading every cell is cheaper
+    private static final long MAX_CELLS = 40_000;
+
+    private final Map<Long, Set<UUID>> idsByCell = new ConcurrentHashMap<>();
+
+    void add(UUID id, GeoPoint point) {
+        idsByCell.computeIfAbsent(cell(latCell(point.latitude()), lonCell(point.longitude())), c -> ConcurrentHashMap.newKeySet())
+            .add(id);
+    }
+
+    Set<UUID> near(GeoPoint center, double radiusKm) {
+        double dLat = radiusKm / KM_PER_DEGREE;
+        double cos = Math.cos(Math.toRadians(center.latitude()));
+        // A circle reaching a pole spans every longitude
+        boolean allLongitudes = center.latitude() + dLat >= 90 || center.latitude() - dLat <= -90
+            || radiusKm / (KM_PER_DEGREE * cos) >= 180;
+        double dLon = allLongitudes ? 180 : radiusKm / (KM_PER_DEGREE * cos);
+        int latLow = latCell(Math.max(-90, center.latitude() - dLat));
+        int latHigh = latCell(Math.min(90, center.latitude() + dLat));
+        int lonStart = (int) Math.floor((center.longitude() - dLon) / CELL_DEGREES);
+        int lonSpan = allLongitudes ? LON_CELLS
+            : Math.min(LON_CELLS, (int) Math.floor((center.longitude() + dLon) / CELL_DEGREES) - lonStart + 1);
+        Set<UUID> ids = new HashSet<>();
+        if ((long) (latHigh - latLow + 1) * lonSpan > MAX_CELLS) {
+            idsByCell.values().forEach(ids::addAll);
+            return ids;
+        }
+        for (int lat = latLow; lat <= latHigh; lat++) {
+            for (int i = 0; i < lonSpan; i++) {
+                Set<UUID> cellIds = idsByCell.get(cell(lat, Math.floorMod(lonStart + i, LON_CELLS)));
+                if (cellIds != null) ids.addAll(cellIds);
+            }
+        }
+        return ids;
+    }
+
+    void clear() {
+        idsByCell.clear();
+    }
+
+    private static int latCell(double latitude) {
+        return (int) Math.floor((latitude + 90) / CELL_DEGREES);
+    }
+
+    private static int lonCell(double longitude) {
+        return Math.floorMod((int) Math.floor(longitude / CELL_DEGREES), LON_CELLS);
+    }
+
+    private static long cell(int latCell, int lonCell) {
+        return (long) latCell * LON_CELLS + lonCell;
+    }
+}
@@ -0,0 +1,187 @@
+package com.healthcare.healthcareproject.search;
+
+import com.healthcare.healthcareproject.dto.ProviderSuggestion;
+import com.healthcare.healthcareproject.event.ProviderChangedEvent;
+import com.healthcare.healthcareproject.model.Provider;
+import com.healthcare.healthcareproject.repository.ProviderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+// Inverted index behind the provider typeahead: normalised tokens of first name, last name, specialization and clinic
+// city, each mapped to the providers (and fields) containing it. Tokens are kept sorted, so every token starting with
+// a typed prefix is one sub-map. Every query word must prefix-match some field; results are ranked by the fields
+// matched (last name > first name > specialization > city), with whole-word matches counting double. A provider's
+// remove-and-add runs under entriesByProvider's lock for its id; posting maps are replaced, never changed in place,
+// because the skip list's compute retries its function on contention instead of locking the token
+@Component
+public class ProviderTypeaheadIndex {
+    private static final Logger log = LoggerFactory.getLogger(ProviderTypeaheadIndex.class);
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int FIRST_NAME = 1, LAST_NAME = 2, SPECIALIZATION = 4, CITY = 8;
+    private static final int MAX_TERMS = 5;
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    private final ConcurrentSkipListMap<String, Map<UUID, Integer>> fieldsByToken = new ConcurrentSkipListMap<>();
+    private final Map<UUID, Entry> entriesByProvider = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.nanoTime();
+        fieldsByToken.clear();
+        entriesByProvider.clear();
+        // Postings are collected first and published once, rather than copied for every provider added
+        Map<String, Map<UUID, Integer>> postings = new HashMap<>();
+        for (Provider provider : providerRepository.findAll()) {
+            if (!provider.isIsActive()) continue;
+            Map<String, Integer> fields = new HashMap<>();
+            entriesByProvider.put(provider.getId(), entry(provider, fields));
+            fields.forEach((token, mask) -> postings.computeIfAbsent(token, t -> new HashMap<>()).put(provider.getId(), mask));
+        }
+        fieldsByToken.putAll(postings);
+        log.info("Provider typeahead index built with {} providers and {} tokens in {} ms", entriesByProvider.size(),
+            fieldsByToken.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProviderChanged(ProviderChangedEvent event) {
+        register(event.getProvider());
+    }
+
+    public void register(Provider provider) {
+        entriesByProvider.compute(provider.getId(), (id, previous) -> {
+            if (previous != null) {
+                unlink(id, previous);
+            }
+            if (!provider.isIsActive()) return null;
+            Map<String, Integer> fields = new HashMap<>();
+            Entry entry = entry(provider, fields);
+            fields.forEach((token, mask) -> fieldsByToken.compute(token, (t, postings) -> with(postings, id, mask)));
+            return entry;
+        });
+    }
+
+    public void remove(UUID providerId) {
+        entriesByProvider.computeIfPresent(providerId, (id, previous) -> {
+            unlink(id, previous);
+            return null;
+        });
+    }
+
+    private void unlink(UUID providerId, Entry previous) {
+        for (String token : previous.tokens) {
+            fieldsByToken.computeIfPresent(token, (t, postings) -> without(postings, providerId));
+        }
+    }
+
+    // Fills fields with the provider's tokens and the fields each occurs in
+    private static Entry entry(Provider provider, Map<String, Integer> fields) {
+        addTokens(fields, provider.getFirstName(), FIRST_NAME);
+        addTokens(fields, provider.getLastName(), LAST_NAME);
+        if (provider.getSpecialization() != null) {
+            addTokens(fields, provider.getSpecialization().name(), SPECIALIZATION);
+        }
+        String city = provider.getClinicAddress() != null ? provider.getClinicAddress().getCity() : null;
+        addTokens(fields, city, CITY);
+        ProviderSuggestion suggestion = new ProviderSuggestion(provider.getId(),
+            provider.getFirstName() + " " + provider.getLastName(), provider.getSpecialization(), city);
+        return new Entry(suggestion, fields.keySet());
+    }
+
+    private static Map<UUID, Integer> with(Map<UUID, Integer> postings, UUID providerId, int fields) {
+        Map<UUID, Integer> copy = postings != null ? new HashMap<>(postings) : new HashMap<>();
+        copy.put(providerId, fields);
+        return copy;
+    }
+
+    // The postings without the provider, or null to drop the token once none are left
+    private static Map<UUID, Integer> without(Map<UUID, Integer> postings, UUID providerId) {
+        if (!postings.containsKey(providerId)) return postings;
+        if (postings.size() == 1) return null;
+        Map<UUID, Integer> copy = new HashMap<>(postings);
+        copy.remove(providerId);
+        return copy;
+    }
+
+    // Up to limit providers matching every word of the query as a prefix, best first
+    public List<ProviderSuggestion> suggest(String query, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokens(query)));
+        if (terms.isEmpty() || limit <= 0) return List.of();
+        // Longer words match fewer tokens, so they go first and the candidate set shrinks early
+        terms.sort(Comparator.comparingInt(String::length).reversed());
+        Map<UUID, Integer> scores = null;
+        for (String term : terms.subList(0, Math.min(terms.size(), MAX_TERMS))) {
+            Map<UUID, Integer> termScores = new HashMap<>();
+            for (Map.Entry<String, Map<UUID, Integer>> token : fieldsByToken.subMap(term, true, term + Character.MAX_VALUE, true).entrySet()) {
+                int multiplier = token.getKey().length() == term.length() ? 2 : 1;
+                for (Map.Entry<UUID, Integer> posting : token.getValue().entrySet()) {
+                    Integer previous = scores != null ? scores.get(posting.getKey()) : Integer.valueOf(0);
+                    if (previous == null) continue;
+                    termScores.merge(posting.getKey(), previous + weight(posting.getValue()) * multiplier, Math::max);
+                }
+            }
+            if (termScores.isEmpty()) return List.of();
+            scores = termScores;
+        }
+        // Bounded heap: the worst of the current top results is at the head
+        PriorityQueue<Match> top = new PriorityQueue<>(Match.RANKING.reversed());
+        for (Map.Entry<UUID, Integer> candidate : scores.entrySet()) {
+            Entry entry = entriesByProvider.get(candidate.getKey());
+            if (entry == null) continue;
+            top.add(new Match(entry.suggestion, candidate.getValue()));
+            if (top.size() > limit) top.poll();
+        }
+        List<Match> ranked = new ArrayList<>(top);
+        ranked.sort(Match.RANKING);
+        return ranked.stream().map(Match::suggestion).toList();
+    }
+
+    public int size() {
+        return entriesByProvider.size();
+    }
+
+    private static int weight(int fields) {
+        if ((fields & LAST_NAME) != 0) return 4;
+        if ((fields & FIRST_NAME) != 0) return 3;
+        if ((fields & SPECIALIZATION) != 0) return 2;
+        return 1;
+    }
+
+    private static void addTokens(Map<String, Integer> fields, String text, int field) {
+        for (String token : tokens(text)) {
+            fields.merge(token, field, (a, b) -> a | b);
+        }
+    }
+
+    // Lower-cased words with accents removed, so "Jose" finds "José"
+    static List<String> tokens(String text) {
+        if (text == null || text.isBlank()) return List.of();
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(folded)) {
+            if (!token.isEmpty()) tokens.add(token);
+        }
+        return tokens;
+    }
+
+    private record Entry(ProviderSuggestion suggestion, Set<String> tokens) {}
+
+    private record Match(ProviderSuggestion suggestion, int score) {
+        static final Comparator<Match> RANKING = Comparator.comparingInt(Match::score).reversed()
+            .thenComparing(m -> m.suggestion.name())
+            .thenComparing(m -> m.suggestion.providerId());
+    }
+}
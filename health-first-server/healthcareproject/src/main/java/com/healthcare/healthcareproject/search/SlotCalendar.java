@@ -0,0 +1,104 @@
+package com.healthcare.healthcareproject.search;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+
+// Busy/free bitmaps per provider and UTC day at 5-minute steps (288 bits, five words per bitmap). Each day is one
+// long[]: words 0-4 mark steps wholly covered by an AVAILABLE slot (stored or an open rule slot), words 5-9 steps
+// touched by any other slot or only partly covered by an AVAILABLE one. Days are rebuilt whole by SlotSearchIndex and
+// swapped in, so readers never see a half-written day. Every step a slot touches is marked in one of the two
+final class SlotCalendar {
+    static final int STEP_MINUTES = 5;
+    static final int STEP_SECONDS = STEP_MINUTES * 60;
+    static final int STEPS_PER_DAY = 24 * 60 / STEP_MINUTES;
+    static final int WORDS = (STEPS_PER_DAY + 63) / 64;
+
+    private final Map<UUID, ConcurrentSkipListMap<Long, long[]>> daysByProvider = new ConcurrentHashMap<>();
+
+    // Replaces the days fromDay (inclusive) to toDay (exclusive) of a provider with a snapshot taken while the
+    // provider's entry is held, so concurrent rebuilds apply one after another and an older snapshot can never
+    // overwrite a newer one; days missing from the snapshot are empty
+    void rebuild(UUID providerId, long fromDay, long toDay, Supplier<Map<Long, long[]>> snapshot) {
+        daysByProvider.compute(providerId, (id, current) -> {
+            ConcurrentSkipListMap<Long, long[]> result = current != null ? current : new ConcurrentSkipListMap<>();
+            Map<Long, long[]> days = snapshot.get();
+            result.subMap(fromDay, true, toDay, false).keySet().removeIf(day -> !days.containsKey(day));
+            result.putAll(days);
+            return result;
+        });
+    }
+
+    long[] day(UUID providerId, long epochDay) {
+        ConcurrentSkipListMap<Long, long[]> days = daysByProvider.get(providerId);
+        return days != null ? days.get(epochDay) : null;
+    }
+
+    // True when no slot of the provider touches any step of [startStep, endStep)
+    boolean isClear(UUID providerId, long startStep, long endStep) {
+        for (long step = startStep; step < endStep; step++) {
+            long[] day = day(providerId, Math.floorDiv(step, STEPS_PER_DAY));
+            if (day == null) {
+                step = (Math.floorDiv(step, STEPS_PER_DAY) + 1) * STEPS_PER_DAY - 1;
+                continue;
+            }
+            int bit = (int) Math.floorMod(step, STEPS_PER_DAY);
+            if (((day[bit >>> 6] | day[WORDS + (bit >>> 6)]) & 1L << bit) != 0) return false;
+        }
+        return true;
+    }
+
+    // Free steps of one day shared by every provider: available and not taken, ANDed word by word; null when a
+    // provider has nothing on that day
+    long[] commonFree(Collection<UUID> providerIds, long epochDay) {
+        long[] free = new long[WORDS];
+        Arrays.fill(free, -1L);
+        for (UUID providerId : providerIds) {
+            long[] day = day(providerId, epochDay);
+            if (day == null) return null;
+            for (int w = 0; w < WORDS; w++) {
+                free[w] &= day[w] & ~day[WORDS + w];
+            }
+        }
+        return free;
+    }
+
+    void clear() {
+        daysByProvider.clear();
+    }
+
+    // Marks the steps of [startSecond, endSecond) that fall within [fromDay, toDay) into days. An AVAILABLE slot only
+    // marks the steps it wholly covers as available; the steps it covers in part go to the other words, so they are
+    // neither reported free nor missed by isClear
+    static void mark(Map<Long, long[]> days, long startSecond, long endSecond, boolean available, long fromDay, long toDay) {
+        long outerFirst = Math.floorDiv(startSecond, STEP_SECONDS);
+        long outerLast = Math.floorDiv(endSecond + STEP_SECONDS - 1, STEP_SECONDS);
+        if (!available) {
+            mark(days, outerFirst, outerLast, WORDS, fromDay, toDay);
+            return;
+        }
+        long innerFirst = Math.floorDiv(startSecond + STEP_SECONDS - 1, STEP_SECONDS);
+        long innerLast = Math.floorDiv(endSecond, STEP_SECONDS);
+        mark(days, innerFirst, innerLast, 0, fromDay, toDay);
+        mark(days, outerFirst, innerFirst, WORDS, fromDay, toDay);
+        mark(days, Math.max(innerFirst, innerLast), outerLast, WORDS, fromDay, toDay);
+    }
+
+    private static void mark(Map<Long, long[]> days, long firstStep, long lastStep, int offset, long fromDay, long toDay) {
+        firstStep = Math.max(firstStep, fromDay * STEPS_PER_DAY);
+        lastStep = Math.min(lastStep, toDay * STEPS_PER_DAY);
+        for (long step = firstStep; step < lastStep; step++) {
+            long[] day = days.computeIfAbsent(Math.floorDiv(step, STEPS_PER_DAY), d -> new long[2 * WORDS]);
+            int bit = (int) Math.floorMod(step, STEPS_PER_DAY);
+            day[offset + (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    static boolean isSet(long[] words, int bit) {
+        return (words[bit >>> 6] & 1L << bit) != 0;
+    }
+}
@@ -0,0 +1,45 @@
+package com.healthcare.healthcareproject.search;
+
+import com.healthcare.healthcareproject.model.AppointmentSlot;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Stored slot counts per provider, UTC day (epoch day of the slot start) and status. SlotSearchIndex adjusts them
+// whenever an entry is added, replaced or removed, so a calendar range is a sub-map read instead of a slot scan
+final class SlotDayCounts {
+    static final int STATUSES = AppointmentSlot.Status.values().length;
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    private final Map<UUID, ConcurrentSkipListMap<Long, AtomicIntegerArray>> countsByProvider = new ConcurrentHashMap<>();
+
+    void add(UUID providerId, long startEpochSecond, AppointmentSlot.Status status, int delta) {
+        if (providerId == null || status == null) return;
+        countsByProvider.computeIfAbsent(providerId, p -> new ConcurrentSkipListMap<>())
+            .computeIfAbsent(epochDay(startEpochSecond), d -> new AtomicIntegerArray(STATUSES))
+            .addAndGet(status.ordinal(), delta);
+    }
+
+    // Counts of days fromDay (inclusive) to toDay (exclusive), indexed by Status ordinal
+    NavigableMap<Long, AtomicIntegerArray> range(UUID providerId, long fromDay, long toDay) {
+        ConcurrentSkipListMap<Long, AtomicIntegerArray> days = countsByProvider.get(providerId);
+        return days != null ? days.subMap(fromDay, true, toDay, false) : Collections.emptyNavigableMap();
+    }
+
+    Iterable<UUID> providers() {
+        return countsByProvider.keySet();
+    }
+
+    void clear() {
+        countsByProvider.clear();
+    }
+
+    static long epochDay(long epochSecond) {
+        return Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+    }
+}
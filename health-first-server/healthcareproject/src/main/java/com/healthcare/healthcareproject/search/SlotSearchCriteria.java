@@ -0,0 +1,49 @@
+package com.healthcare.healthcareproject.search;
+
+import com.healthcare.healthcareproject.geo.GeoPoint;
+import com.healthcare.healthcareproject.util.ProviderSpecialization;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.UUID;
+
+public class SlotSearchCriteria {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private UUID providerId;
+    private ProviderSpecialization specialization;
+    private String locationType;
+    private String appointmentType;
+    private Boolean insuranceAccepted;
+    private Double maxPrice;
+    private boolean availableOnly = true;
+    // "Near me": slots within radiusKm of this point, nearest first
+    private GeoPoint near;
+    private double radiusKm;
+    // Time zone of the start/end dates; null means UTC days
+    private ZoneId zone;
+
+    public LocalDate getStartDate() { return startDate; }
+    public void setStartDate(LocalDate startDate) { this.startDate = startDate; }
+    public LocalDate getEndDate() { return endDate; }
+    public void setEndDate(LocalDate endDate) { this.endDate = endDate; }
+    public UUID getProviderId() { return providerId; }
+    public void setProviderId(UUID providerId) { this.providerId = providerId; }
+    public ProviderSpecialization getSpecialization() { return specialization; }
+    public void setSpecialization(ProviderSpecialization specialization) { this.specialization = specialization; }
+    public String getLocationType() { return locationType; }
+    public void setLocationType(String locationType) { this.locationType = locationType; }
+    public String getAppointmentType() { return appointmentType; }
+    public void setAppointmentType(String appointmentType) { this.appointmentType = appointmentType; }
+    public Boolean getInsuranceAccepted() { return insuranceAccepted; }
+    public void setInsuranceAccepted(Boolean insuranceAccepted) { this.insuranceAccepted = insuranceAccepted; }
+    public Double getMaxPrice() { return maxPrice; }
+    public void setMaxPrice(Double maxPrice) { this.maxPrice = maxPrice; }
+    public boolean isAvailableOnly() { return availableOnly; }
+    public void setAvailableOnly(boolean availableOnly) { this.availableOnly = availableOnly; }
+    public GeoPoint getNear() { return near; }
+    public void setNear(GeoPoint near) { this.near = near; }
+    public double getRadiusKm() { return radiusKm; }
+    public void setRadiusKm(double radiusKm) { this.radiusKm = radiusKm; }
+    public ZoneId getZone() { return zone; }
+    public void setZone(ZoneId zone) { this.zone = zone; }
+}
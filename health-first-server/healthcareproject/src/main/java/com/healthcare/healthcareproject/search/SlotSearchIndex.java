@@ -0,0 +1,673 @@
+package com.healthcare.healthcareproject.search;
+
+import com.healthcare.healthcareproject.dto.SlotDayCount;
+import com.healthcare.healthcareproject.dto.SlotSummary;
+import com.healthcare.healthcareproject.event.AvailabilityChangedEvent;
+import com.healthcare.healthcareproject.event.SlotChangedEvent;
+import com.healthcare.healthcareproject.geo.GeoPoint;
+import com.healthcare.healthcareproject.geo.ZipCodeGeocoder;
+import com.healthcare.healthcareproject.model.AppointmentSlot;
+import com.healthcare.healthcareproject.model.Provider;
+import com.healthcare.healthcareproject.model.ProviderAvailability;
+import com.healthcare.healthcareproject.repository.AppointmentSlotRepository;
+import com.healthcare.healthcareproject.repository.ProviderAvailabilityRepository;
+import com.healthcare.healthcareproject.repository.ProviderRepository;
+import com.healthcare.healthcareproject.service.SlotGenerator;
+import com.healthcare.healthcareproject.util.ProviderSpecialization;
+import com.healthcare.healthcareproject.util.SlotTimes;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// In-memory index behind the patient slot search: slots are kept per provider sorted by start time,
+// with provider specialization and availability location/pricing shared as facets. Per-day counts of the indexed
+// slots are kept alongside for the calendar summary, provider locations in a grid for the "near me" search, and
+// 5-minute busy/free bitmaps per provider and day (SlotCalendar) for free/busy queries and overlap hints.
+// Writes made by this instance arrive as after-commit events. Writes by other instances are picked up by refresh(),
+// which rereads the slots and availabilities updated since the last pass. Those show up within refresh-ms plus the
+// time of one pass (30 s by default); until then the index can still offer a slot booked or deleted elsewhere
+@Component
+public class SlotSearchIndex {
+    private static final Logger log = LoggerFactory.getLogger(SlotSearchIndex.class);
+    private static final UUID MIN_ID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+
+    @Autowired
+    private AppointmentSlotRepository slotRepository;
+    @Autowired
+    private ProviderRepository providerRepository;
+    @Autowired
+    private ProviderAvailabilityRepository availabilityRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private ZipCodeGeocoder geocoder;
+
+    private final Map<UUID, NavigableSet<SlotEntry>> slotsByProvider = new ConcurrentHashMap<>();
+    private final NavigableSet<SlotEntry> slotsByStart = new ConcurrentSkipListSet<>(SlotEntry.ORDER);
+    private final Map<UUID, SlotEntry> slotsById = new ConcurrentHashMap<>();
+    private final Set<UUID> resolvedProviders = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, String> nameByProvider = new ConcurrentHashMap<>();
+    private final Map<UUID, ProviderSpecialization> specializationByProvider = new ConcurrentHashMap<>();
+    private final Map<ProviderSpecialization, Set<UUID>> providersBySpecialization = new ConcurrentHashMap<>();
+    private final Map<UUID, AvailabilityFacet> facetsByAvailability = new ConcurrentHashMap<>();
+    // Lazy availability rules per provider; their open slots are expanded at search time
+    private final Map<UUID, Map<UUID, ProviderAvailability>> lazyRulesByProvider = new ConcurrentHashMap<>();
+    private final SlotDayCounts dayCounts = new SlotDayCounts();
+    private final Map<UUID, GeoPoint> pointByProvider = new ConcurrentHashMap<>();
+    private final GeoGrid providersByLocation = new GeoGrid();
+    private final SlotCalendar calendar = new SlotCalendar();
+    private volatile boolean calendarReady;
+    // Start of the last pass over the database; the next refresh rereads everything updated from there on
+    private volatile Instant lastRead;
+
+    // Rows are reread this far back from the last pass, so ones written by a transaction that committed after that
+    // pass (or stamped by a lagging clock on another instance) are not skipped
+    @Value("${healthcare.search.index.refresh-overlap-ms:60000}")
+    private long refreshOverlapMs;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.nanoTime();
+        Instant readFrom = Instant.now();
+        clear();
+        Map<UUID, long[]> changedDays = new HashMap<>();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        tx.executeWithoutResult(status -> {
+            providerRepository.findAll().forEach(this::registerProvider);
+            availabilityRepository.findAll().forEach(availability -> registerAvailability(availability, changedDays));
+            try (Stream<AppointmentSlot> slots = slotRepository.streamAll()) {
+                slots.forEach(slot -> {
+                    index(slot, changedDays);
+                    entityManager.detach(slot);
+                });
+            }
+        });
+        refreshCalendar(changedDays);
+        lastRead = readFrom;
+        calendarReady = true;
+        log.info("Slot search index built with {} slots in {} ms", slotsById.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // Catches up with writes made by other instances: slots updated since the last pass are reindexed, availabilities
+    // updated since then are re-registered, and their indexed slots that no longer have a row are dropped (a delete
+    // touches its availability). Rereading rows this instance already indexed is harmless
+    @Scheduled(fixedDelayString = "${healthcare.search.index.refresh-ms:30000}",
+               initialDelayString = "${healthcare.search.index.refresh-ms:30000}")
+    public void refresh() {
+        if (lastRead == null) return;
+        Instant readFrom = Instant.now();
+        Instant since = lastRead.minusMillis(refreshOverlapMs);
+        Map<UUID, long[]> changedDays = new HashMap<>();
+        int[] slots = new int[1];
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        tx.executeWithoutResult(status -> {
+            List<ProviderAvailability> availabilities = availabilityRepository.findByUpdatedAtGreaterThanEqual(since);
+            availabilities.forEach(availability -> registerAvailability(availability, changedDays));
+            try (Stream<AppointmentSlot> updated = slotRepository.streamUpdatedSince(since)) {
+                updated.forEach(slot -> {
+                    index(slot, changedDays);
+                    entityManager.detach(slot);
+                    slots[0]++;
+                });
+            }
+            if (!availabilities.isEmpty()) {
+                Map<UUID, UUID> providerByAvailability = new HashMap<>();
+                availabilities.forEach(availability -> providerByAvailability.put(availability.getId(), availability.getProviderId()));
+                Set<UUID> stored = new HashSet<>(slotRepository.findIdsByAvailabilityIds(providerByAvailability.keySet()));
+                Set<UUID> providers = new HashSet<>(providerByAvailability.values());
+                for (UUID providerId : providers) {
+                    for (SlotEntry entry : slotsByProvider.getOrDefault(providerId, Collections.emptyNavigableSet())) {
+                        if (providerByAvailability.containsKey(entry.availabilityId) && !stored.contains(entry.id)) {
+                            remove(entry.id, changedDays);
+                        }
+                    }
+                }
+            }
+        });
+        refreshCalendar(changedDays);
+        lastRead = readFrom;
+        log.debug("Slot search index refreshed {} slots from changes since {}", slots[0], since);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSlotChanged(SlotChangedEvent event) {
+        Map<UUID, long[]> changedDays = new HashMap<>();
+        for (AppointmentSlot slot : event.getSlots()) {
+            if (event.getType() == SlotChangedEvent.ChangeType.DELETED) {
+                remove(slot.getId(), changedDays);
+            } else {
+                index(slot, changedDays);
+            }
+        }
+        refreshCalendar(changedDays);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAvailabilityChanged(AvailabilityChangedEvent event) {
+        registerAvailability(event.getAvailability());
+    }
+
+    public void registerProvider(Provider provider) {
+        resolvedProviders.add(provider.getId());
+        String name = SlotSummary.displayName(provider);
+        if (name != null) nameByProvider.put(provider.getId(), name);
+        GeoPoint clinic = clinicPoint(provider);
+        if (clinic != null) {
+            pointByProvider.put(provider.getId(), clinic);
+            providersByLocation.add(provider.getId(), clinic);
+        }
+        if (provider.getSpecialization() == null) return;
+        ProviderSpecialization previous = specializationByProvider.put(provider.getId(), provider.getSpecialization());
+        if (previous != null && previous != provider.getSpecialization()) {
+            providersBySpecialization.getOrDefault(previous, Set.of()).remove(provider.getId());
+        }
+        providersBySpecialization.computeIfAbsent(provider.getSpecialization(), s -> ConcurrentHashMap.newKeySet())
+            .add(provider.getId());
+    }
+
+    public void registerAvailability(ProviderAvailability availability) {
+        Map<UUID, long[]> changedDays = new HashMap<>();
+        registerAvailability(availability, changedDays);
+        refreshCalendar(changedDays);
+    }
+
+    private void registerAvailability(ProviderAvailability availability, Map<UUID, long[]> changedDays) {
+        AvailabilityFacet facet = facet(availability);
+        facetsByAvailability.put(availability.getId(), facet);
+        if (facet.point != null && availability.getProviderId() != null) {
+            providersByLocation.add(availability.getProviderId(), facet.point);
+        }
+        if (availability.getMaterialization() == ProviderAvailability.SlotMaterialization.LAZY && availability.getSlotKey() != null) {
+            // A lazy rule may have no stored slot yet, so its provider is resolved here rather than by index()
+            resolveProvider(availability.getProviderId());
+            lazyRulesByProvider.computeIfAbsent(availability.getProviderId(), p -> new ConcurrentHashMap<>())
+                .put(availability.getId(), availability);
+            // Rule dates are local to the rule's zone, so its slots can fall on the UTC day before or after
+            changedDays(changedDays, availability.getProviderId(), availability.getDate().toEpochDay() - 1,
+                SlotGenerator.lastDate(availability).toEpochDay() + 2);
+        }
+    }
+
+    public void index(AppointmentSlot slot) {
+        Map<UUID, long[]> changedDays = new HashMap<>();
+        index(slot, changedDays);
+        refreshCalendar(changedDays);
+    }
+
+    private void index(AppointmentSlot slot, Map<UUID, long[]> changedDays) {
+        resolveProvider(slot.getProviderId());
+        AvailabilityFacet facet = facetsByAvailability.get(slot.getAvailabilityId());
+        if (facet == null) {
+            availabilityRepository.findById(slot.getAvailabilityId()).ifPresent(this::registerAvailability);
+            facet = facetsByAvailability.computeIfAbsent(slot.getAvailabilityId(), id -> AvailabilityFacet.NONE);
+        }
+        SlotEntry entry = SlotEntry.of(slot, facet);
+        // The swap runs under slotsById's lock for this id, so concurrent events for one slot cannot leave both the
+        // old and the new entry in the sorted sets or count either of them twice
+        slotsById.compute(entry.id, (id, previous) -> {
+            if (previous != null) {
+                unlink(previous, changedDays);
+            }
+            slotsByProvider.computeIfAbsent(entry.providerId, p -> new ConcurrentSkipListSet<>(SlotEntry.ORDER)).add(entry);
+            slotsByStart.add(entry);
+            dayCounts.add(entry.providerId, entry.startEpochSecond, entry.status, 1);
+            changedDays(changedDays, entry);
+            return entry;
+        });
+    }
+
+    // Stored coordinates, or the ZIP centroid for rows written before locations were geocoded
+    private GeoPoint clinicPoint(Provider provider) {
+        Provider.ClinicAddress address = provider.getClinicAddress();
+        if (address == null) return null;
+        GeoPoint point = GeoPoint.of(address.getLatitude(), address.getLongitude());
+        return point != null || geocoder == null ? point : geocoder.locate(address.getZip()).orElse(null);
+    }
+
+    private AvailabilityFacet facet(ProviderAvailability availability) {
+        ProviderAvailability.Location location = availability.getLocation();
+        GeoPoint point = null;
+        if (location != null) {
+            point = GeoPoint.of(location.getLatitude(), location.getLongitude());
+            if (point == null && geocoder != null) {
+                point = geocoder.locate(location.getAddress()).orElse(null);
+            }
+        }
+        return AvailabilityFacet.of(availability, point);
+    }
+
+    private void resolveProvider(UUID providerId) {
+        if (providerId != null && resolvedProviders.add(providerId)) {
+            providerRepository.findById(providerId).ifPresent(this::registerProvider);
+        }
+    }
+
+    public void remove(UUID slotId) {
+        Map<UUID, long[]> changedDays = new HashMap<>();
+        remove(slotId, changedDays);
+        refreshCalendar(changedDays);
+    }
+
+    private void remove(UUID slotId, Map<UUID, long[]> changedDays) {
+        slotsById.computeIfPresent(slotId, (id, previous) -> {
+            unlink(previous, changedDays);
+            return null;
+        });
+    }
+
+    // Drops an entry from the sorted sets and day counts; callers hold slotsById's lock for its id
+    private void unlink(SlotEntry previous, Map<UUID, long[]> changedDays) {
+        slotsByProvider.getOrDefault(previous.providerId, Collections.emptyNavigableSet()).remove(previous);
+        slotsByStart.remove(previous);
+        dayCounts.add(previous.providerId, previous.startEpochSecond, previous.status, -1);
+        changedDays(changedDays, previous);
+    }
+
+    private static void changedDays(Map<UUID, long[]> changedDays, SlotEntry entry) {
+        changedDays(changedDays, entry.providerId, SlotDayCounts.epochDay(entry.startEpochSecond),
+            SlotDayCounts.epochDay(entry.endEpochSecond) + 1);
+    }
+
+    // Widens the provider's pending calendar range [fromDay, toDay) to cover the given days
+    private static void changedDays(Map<UUID, long[]> changedDays, UUID providerId, long fromDay, long toDay) {
+        if (providerId == null) return;
+        long[] range = changedDays.get(providerId);
+        if (range == null) {
+            changedDays.put(providerId, new long[] {fromDay, toDay});
+        } else {
+            range[0] = Math.min(range[0], fromDay);
+            range[1] = Math.max(range[1], toDay);
+        }
+    }
+
+    private void refreshCalendar(Map<UUID, long[]> changedDays) {
+        changedDays.forEach((providerId, range) -> refreshCalendar(providerId, range[0], range[1]));
+    }
+
+    // Rebuilds the provider's bitmaps for days [fromDay, toDay) from its indexed slots and the open slots of its lazy
+    // rules, which are expanded a slot length past both ends for slots crossing midnight
+    private void refreshCalendar(UUID providerId, long fromDay, long toDay) {
+        calendar.rebuild(providerId, fromDay, toDay, () -> calendarDays(providerId, fromDay, toDay));
+    }
+
+    private Map<Long, long[]> calendarDays(UUID providerId, long fromDay, long toDay) {
+        long from = fromDay * 86_400;
+        long to = toDay * 86_400;
+        long margin = SlotGenerator.MAX_SLOT_MINUTES * 60L;
+        Map<Long, long[]> days = new HashMap<>();
+        NavigableSet<SlotEntry> slots = slotsByProvider.get(providerId);
+        if (slots != null) {
+            for (SlotEntry entry : slots.subSet(SlotEntry.bound(from - margin), true, SlotEntry.bound(to), false)) {
+                if (entry.endEpochSecond > from) {
+                    SlotCalendar.mark(days, entry.startEpochSecond, entry.endEpochSecond,
+                        entry.status == AppointmentSlot.Status.AVAILABLE, fromDay, toDay);
+                }
+            }
+        }
+        for (AppointmentSlot slot : ruleSlots(providerId, from - margin, to + margin)) {
+            SlotCalendar.mark(days, slot.getSlotStartTime().getEpochSecond(), slot.getSlotEndTime().getEpochSecond(),
+                true, fromDay, toDay);
+        }
+        return days;
+    }
+
+    // False until the first rebuild has filled the calendar; callers then fall back to the database
+    public boolean isCalendarReady() {
+        return calendarReady;
+    }
+
+    // True when none of the provider's slots (any status, open rule slots included) touches a 5-minute step of
+    // [start, end). Slots off the 5-minute grid make this conservative: false can still mean no exact overlap
+    public boolean isClear(UUID providerId, Instant start, Instant end) {
+        return calendar.isClear(providerId, Math.floorDiv(start.getEpochSecond(), SlotCalendar.STEP_SECONDS),
+            Math.floorDiv(end.getEpochSecond() + SlotCalendar.STEP_SECONDS - 1, SlotCalendar.STEP_SECONDS));
+    }
+
+    // True when one of the provider's slots (any status, open rule slots included) overlaps [start, end). Only the
+    // 5-minute steps lying wholly inside the range are read, so any slot marked on one of them does overlap it. This
+    // is a hint for skipping work only: false proves nothing, since the bitmaps miss other instances' writes and
+    // uncommitted ones
+    public boolean isBusy(UUID providerId, Instant start, Instant end) {
+        long firstStep = Math.floorDiv(start.getEpochSecond() + SlotCalendar.STEP_SECONDS - 1, SlotCalendar.STEP_SECONDS);
+        long endStep = Math.floorDiv(end.getEpochSecond(), SlotCalendar.STEP_SECONDS);
+        return firstStep < endStep && !calendar.isClear(providerId, firstStep, endStep);
+    }
+
+    // Starts of the blockMinutes-long blocks in [from, to), counted from from, in which every listed provider is
+    // free: each 5-minute step is covered by an open slot and by nothing booked, blocked or cancelled. The providers'
+    // day bitmaps are intersected word by word, so each extra provider costs a few AND operations per day
+    public List<Instant> freeBlocks(Collection<UUID> providerIds, Instant from, Instant to, int blockMinutes) {
+        long firstStep = Math.floorDiv(from.getEpochSecond(), SlotCalendar.STEP_SECONDS);
+        long endStep = Math.floorDiv(to.getEpochSecond(), SlotCalendar.STEP_SECONDS);
+        int stepsPerBlock = Math.max(1, blockMinutes / SlotCalendar.STEP_MINUTES);
+        Map<Long, long[]> freeByDay = new HashMap<>();
+        List<Instant> blocks = new ArrayList<>();
+        for (long blockStart = firstStep; blockStart + stepsPerBlock <= endStep; blockStart += stepsPerBlock) {
+            boolean free = true;
+            for (long step = blockStart; free && step < blockStart + stepsPerBlock; step++) {
+                long day = Math.floorDiv(step, SlotCalendar.STEPS_PER_DAY);
+                long[] dayFree = freeByDay.computeIfAbsent(day, d -> {
+                    long[] common = calendar.commonFree(providerIds, d);
+                    return common != null ? common : new long[SlotCalendar.WORDS];
+                });
+                free = SlotCalendar.isSet(dayFree, (int) Math.floorMod(step, SlotCalendar.STEPS_PER_DAY));
+            }
+            if (free) {
+                blocks.add(Instant.ofEpochSecond(blockStart * SlotCalendar.STEP_SECONDS));
+            }
+        }
+        return blocks;
+    }
+
+    public List<SlotSummary> search(SlotSearchCriteria criteria) {
+        List<SlotSummary> result = new ArrayList<>();
+        search(criteria, result::add);
+        return result;
+    }
+
+    // Streaming form of search: rows are built one at a time as the action takes them, so only the compact
+    // index entries are held, and not even those when the global start-time walk needs no re-sort
+    public void search(SlotSearchCriteria criteria, Consumer<SlotSummary> action) {
+        long from = SlotTimes.startOfDay(criteria.getStartDate(), criteria.getZone());
+        long to = SlotTimes.startOfDay(criteria.getEndDate().plusDays(1), criteria.getZone());
+        if (criteria.getNear() != null) {
+            searchNear(criteria, from, to, action);
+            return;
+        }
+        SlotEntry low = SlotEntry.bound(from);
+        SlotEntry high = SlotEntry.bound(to);
+
+        List<SlotEntry> matches = new ArrayList<>();
+        if (criteria.getProviderId() == null && criteria.getSpecialization() == null) {
+            // No provider facet: walk the global start-time order, already sorted
+            boolean direct = lazyRulesByProvider.isEmpty();
+            for (SlotEntry entry : slotsByStart.subSet(low, true, high, false)) {
+                if (entry.endEpochSecond < to && entry.matches(criteria)) {
+                    if (direct) {
+                        action.accept(summary(entry));
+                    } else {
+                        matches.add(entry);
+                    }
+                }
+            }
+            if (!direct) {
+                for (UUID providerId : lazyRulesByProvider.keySet()) {
+                    addRuleSlots(providerId, from, to, criteria, matches);
+                }
+                matches.sort(SlotEntry.ORDER);
+                forEachSlot(matches, action);
+            }
+            return;
+        }
+
+        Collection<UUID> providers = criteria.getProviderId() != null
+            ? List.of(criteria.getProviderId())
+            : providersBySpecialization.getOrDefault(criteria.getSpecialization(), Set.of());
+        boolean sort = false;
+        for (UUID providerId : providers) {
+            if (criteria.getSpecialization() != null && specializationByProvider.get(providerId) != criteria.getSpecialization()) {
+                continue;
+            }
+            sort |= addRuleSlots(providerId, from, to, criteria, matches);
+            addStoredSlots(providerId, from, to, criteria, matches);
+        }
+        if (sort || providers.size() > 1) {
+            matches.sort(SlotEntry.ORDER);
+        }
+        forEachSlot(matches, action);
+    }
+
+    // Slots within radiusKm of criteria.near, nearest first, then by start. Only providers with a location in the grid
+    // cells around the point are read; each slot is measured from its availability's location, or else the clinic
+    private void searchNear(SlotSearchCriteria criteria, long from, long to, Consumer<SlotSummary> action) {
+        GeoPoint near = criteria.getNear();
+        List<Nearby> nearby = new ArrayList<>();
+        for (UUID providerId : providersByLocation.near(near, criteria.getRadiusKm())) {
+            if (criteria.getProviderId() != null && !criteria.getProviderId().equals(providerId)) continue;
+            if (criteria.getSpecialization() != null && specializationByProvider.get(providerId) != criteria.getSpecialization()) continue;
+            List<SlotEntry> matches = new ArrayList<>();
+            addRuleSlots(providerId, from, to, criteria, matches);
+            addStoredSlots(providerId, from, to, criteria, matches);
+            GeoPoint clinic = pointByProvider.get(providerId);
+            for (SlotEntry entry : matches) {
+                GeoPoint point = entry.facet.point != null ? entry.facet.point : clinic;
+                if (point == null) continue;
+                double distance = near.distanceKm(point);
+                if (distance <= criteria.getRadiusKm()) {
+                    nearby.add(new Nearby(entry, distance));
+                }
+            }
+        }
+        nearby.sort(Comparator.comparingDouble(Nearby::distanceKm).thenComparing(Nearby::entry, SlotEntry.ORDER));
+        for (Nearby slot : nearby) {
+            action.accept(summary(slot.entry(), Math.round(slot.distanceKm() * 10) / 10.0));
+        }
+    }
+
+    private record Nearby(SlotEntry entry, double distanceKm) {}
+
+    private void addStoredSlots(UUID providerId, long from, long to, SlotSearchCriteria criteria, List<SlotEntry> matches) {
+        NavigableSet<SlotEntry> slots = slotsByProvider.get(providerId);
+        if (slots == null) return;
+        for (SlotEntry entry : slots.subSet(SlotEntry.bound(from), true, SlotEntry.bound(to), false)) {
+            if (entry.endEpochSecond < to && entry.matches(criteria)) {
+                matches.add(entry);
+            }
+        }
+    }
+
+    // Slot counts per provider and day (UTC, by slot start) for one provider, a specialization or every provider,
+    // ordered by provider and date. Stored slots are read from the maintained counters; open slots of lazy rules
+    // have no rows, so only those are expanded for the range and added to the available count
+    public List<SlotDayCount> dayCounts(UUID providerId, ProviderSpecialization specialization, LocalDate startDate, LocalDate endDate) {
+        long fromDay = startDate.toEpochDay();
+        long toDay = endDate.toEpochDay() + 1;
+        Set<UUID> providers = new TreeSet<>();
+        if (providerId != null) {
+            providers.add(providerId);
+        } else if (specialization != null) {
+            providers.addAll(providersBySpecialization.getOrDefault(specialization, Set.of()));
+        } else {
+            dayCounts.providers().forEach(providers::add);
+            providers.addAll(lazyRulesByProvider.keySet());
+        }
+        List<SlotDayCount> result = new ArrayList<>();
+        for (UUID id : providers) {
+            if (specialization != null && specializationByProvider.get(id) != specialization) {
+                continue;
+            }
+            NavigableMap<Long, int[]> days = new TreeMap<>();
+            for (Map.Entry<Long, AtomicIntegerArray> day : dayCounts.range(id, fromDay, toDay).entrySet()) {
+                int[] counts = new int[SlotDayCounts.STATUSES];
+                for (int i = 0; i < counts.length; i++) {
+                    counts[i] = day.getValue().get(i);
+                }
+                days.put(day.getKey(), counts);
+            }
+            // Rule slots are bucketed by start, so the expansion runs past the range for slots ending after midnight
+            long to = toDay * 86_400;
+            for (AppointmentSlot slot : ruleSlots(id, fromDay * 86_400, to + SlotGenerator.MAX_SLOT_MINUTES * 60L)) {
+                long start = slot.getSlotStartTime().getEpochSecond();
+                if (start < to) {
+                    days.computeIfAbsent(SlotDayCounts.epochDay(start), d -> new int[SlotDayCounts.STATUSES])
+                        [AppointmentSlot.Status.AVAILABLE.ordinal()]++;
+                }
+            }
+            days.forEach((day, counts) -> {
+                if (Arrays.stream(counts).anyMatch(count -> count != 0)) {
+                    result.add(new SlotDayCount(id, LocalDate.ofEpochDay(day),
+                        counts[AppointmentSlot.Status.AVAILABLE.ordinal()], counts[AppointmentSlot.Status.BOOKED.ordinal()],
+                        counts[AppointmentSlot.Status.CANCELLED.ordinal()], counts[AppointmentSlot.Status.BLOCKED.ordinal()]));
+                }
+            });
+        }
+        return result;
+    }
+
+    private boolean addRuleSlots(UUID providerId, long from, long to, SlotSearchCriteria criteria, List<SlotEntry> matches) {
+        Map<UUID, ProviderAvailability> rules = lazyRulesByProvider.get(providerId);
+        if (rules == null || rules.isEmpty()) return false;
+        for (AppointmentSlot slot : ruleSlots(providerId, from, to)) {
+            SlotEntry entry = SlotEntry.of(slot, facetsByAvailability.getOrDefault(slot.getAvailabilityId(), AvailabilityFacet.NONE));
+            if (entry.matches(criteria)) {
+                matches.add(entry);
+            }
+        }
+        return true;
+    }
+
+    // Open slots of the provider's lazy rules, resolved against its indexed slots the same way SlotRuleService does
+    private List<AppointmentSlot> ruleSlots(UUID providerId, long from, long to) {
+        Map<UUID, ProviderAvailability> rules = lazyRulesByProvider.get(providerId);
+        if (rules == null || rules.isEmpty()) return List.of();
+        List<AppointmentSlot> rows = new ArrayList<>();
+        NavigableSet<SlotEntry> slots = slotsByProvider.get(providerId);
+        if (slots != null) {
+            long scanFrom = from - SlotGenerator.MAX_SLOT_MINUTES * 60L;
+            for (SlotEntry entry : slots.subSet(SlotEntry.bound(scanFrom), true, SlotEntry.bound(to), false)) {
+                if (entry.endEpochSecond > from) rows.add(entry.toSlot());
+            }
+        }
+        return SlotGenerator.openSlots(new ArrayList<>(rules.values()), rows, Instant.ofEpochSecond(from), Instant.ofEpochSecond(to));
+    }
+
+    private void forEachSlot(List<SlotEntry> entries, Consumer<SlotSummary> action) {
+        for (SlotEntry entry : entries) {
+            action.accept(summary(entry));
+        }
+    }
+
+    private SlotSummary summary(SlotEntry entry) {
+        return summary(entry, null);
+    }
+
+    private SlotSummary summary(SlotEntry entry, Double distanceKm) {
+        return new SlotSummary(entry.id, entry.providerId, nameByProvider.get(entry.providerId),
+            specializationByProvider.get(entry.providerId), Instant.ofEpochSecond(entry.startEpochSecond),
+            Instant.ofEpochSecond(entry.endEpochSecond), entry.status, entry.appointmentType, distanceKm);
+    }
+
+    public int size() {
+        return slotsById.size();
+    }
+
+    public void clear() {
+        slotsByProvider.clear();
+        slotsByStart.clear();
+        slotsById.clear();
+        resolvedProviders.clear();
+        nameByProvider.clear();
+        specializationByProvider.clear();
+        providersBySpecialization.clear();
+        facetsByAvailability.clear();
+        lazyRulesByProvider.clear();
+        dayCounts.clear();
+        calendar.clear();
+        pointByProvider.clear();
+        providersByLocation.clear();
+    }
+
+    static final class AvailabilityFacet {
+        static final AvailabilityFacet NONE = new AvailabilityFacet(null, null, null, null);
+
+        final String locationType;
+        final Double baseFee;
+        final Boolean insuranceAccepted;
+        final GeoPoint point;
+
+        AvailabilityFacet(String locationType, Double baseFee, Boolean insuranceAccepted, GeoPoint point) {
+            this.locationType = locationType;
+            this.baseFee = baseFee;
+            this.insuranceAccepted = insuranceAccepted;
+            this.point = point;
+        }
+
+        static AvailabilityFacet of(ProviderAvailability availability, GeoPoint point) {
+            String locationType = availability.getLocation() != null ? availability.getLocation().getType() : null;
+            ProviderAvailability.Pricing pricing = availability.getPricing();
+            return new AvailabilityFacet(locationType,
+                pricing != null ? pricing.getBaseFee() : null,
+                pricing != null ? pricing.getInsuranceAccepted() : null, point);
+        }
+    }
+
+    static final class SlotEntry {
+        static final Comparator<SlotEntry> ORDER = Comparator.<SlotEntry>comparingLong(e -> e.startEpochSecond)
+            .thenComparing(e -> e.id);
+
+        final UUID id;
+        final UUID providerId;
+        final UUID availabilityId;
+        final long startEpochSecond;
+        final long endEpochSecond;
+        final AppointmentSlot.Status status;
+        final String appointmentType;
+        final AvailabilityFacet facet;
+
+        private SlotEntry(UUID id, UUID providerId, UUID availabilityId, long startEpochSecond, long endEpochSecond,
+                          AppointmentSlot.Status status, String appointmentType, AvailabilityFacet facet) {
+            this.id = id;
+            this.providerId = providerId;
+            this.availabilityId = availabilityId;
+            this.startEpochSecond = startEpochSecond;
+            this.endEpochSecond = endEpochSecond;
+            this.status = status;
+            this.appointmentType = appointmentType;
+            this.facet = facet;
+        }
+
+        static SlotEntry of(AppointmentSlot slot, AvailabilityFacet facet) {
+            return new SlotEntry(slot.getId(), slot.getProviderId(), slot.getAvailabilityId(),
+                slot.getSlotStartTime().getEpochSecond(), slot.getSlotEndTime().getEpochSecond(), slot.getStatus(),
+                slot.getAppointmentType(), facet);
+        }
+
+        // Range bound that sorts before every real slot starting at the same second
+        static SlotEntry bound(long epochSecond) {
+            return new SlotEntry(MIN_ID, null, null, epochSecond, epochSecond, null, null, AvailabilityFacet.NONE);
+        }
+
+        boolean matches(SlotSearchCriteria criteria) {
+            if (criteria.isAvailableOnly() && status != AppointmentSlot.Status.AVAILABLE) return false;
+            if (criteria.getAppointmentType() != null && !criteria.getAppointmentType().equalsIgnoreCase(appointmentType)) return false;
+            if (criteria.getLocationType() != null && !criteria.getLocationType().equalsIgnoreCase(facet.locationType)) return false;
+            if (criteria.getInsuranceAccepted() != null && !criteria.getInsuranceAccepted().equals(facet.insuranceAccepted)) return false;
+            if (criteria.getMaxPrice() != null && (facet.baseFee == null || facet.baseFee > criteria.getMaxPrice())) return false;
+            return true;
+        }
+
+        AppointmentSlot toSlot() {
+            AppointmentSlot slot = new AppointmentSlot();
+            slot.setId(id);
+            slot.setProviderId(providerId);
+            slot.setAvailabilityId(availabilityId);
+            slot.setSlotStartTime(Instant.ofEpochSecond(startEpochSecond));
+            slot.setSlotEndTime(Instant.ofEpochSecond(endEpochSecond));
+            slot.setStatus(status);
+            slot.setAppointmentType(appointmentType);
+            return slot;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.healthcare.healthcareproject.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -18,7 +19,7 @@ import java.util.Collections;
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
     @Autowired
-    private JwtUtil jwtUtil;
+    private JwtClaimsCache claimsCache;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -28,8 +29,10 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         if (header != null && header.startsWith("Bearer ")) {
             token = header.substring(7);
         }
-        if (token != null && jwtUtil.validateToken(token)) {
-            String subject = jwtUtil.getSubjectFromToken(token);
+        // One verification per distinct token; later requests with the same token hit the claims cache
+        Claims claims = token != null ? claimsCache.getVerifiedClaims(token) : null;
+        if (claims != null) {
+            String subject = claims.getSubject();
             UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                     new User(subject, "", Collections.emptyList()), null, Collections.emptyList());
             authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
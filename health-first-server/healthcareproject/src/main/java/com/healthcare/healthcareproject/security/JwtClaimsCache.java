@@ -0,0 +1,105 @@
+package com.healthcare.healthcareproject.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Claims of tokens that already passed signature verification, keyed by the token's SHA-256 digest (raw tokens
+// are never kept) and dropped when the token expires. A hit costs one digest and one map lookup instead of
+// base64 decoding, JSON parsing and an HMAC check. Invalid tokens are never cached
+@Component
+public class JwtClaimsCache {
+    // Used when a token carries no exp claim
+    private static final long DEFAULT_TTL_MS = 5 * 60 * 1000;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Value("${healthcare.security.jwt.cache-size:10000}")
+    private int maxEntries;
+
+    private final Map<Digest, Entry> entries = new ConcurrentHashMap<>();
+
+    // Verified claims of the token, or null when it is invalid or expired
+    public Claims getVerifiedClaims(String token) {
+        Digest digest = Digest.of(token);
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(digest);
+        if (entry != null) {
+            if (entry.expiresAt > now) return entry.claims;
+            entries.remove(digest, entry);
+        }
+        Claims claims;
+        try {
+            claims = jwtUtil.parseClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        Date expiration = claims.getExpiration();
+        long expiresAt = expiration != null ? expiration.getTime() : now + DEFAULT_TTL_MS;
+        if (entries.size() >= maxEntries) {
+            evict(now);
+        }
+        entries.put(digest, new Entry(claims, expiresAt));
+        return claims;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    // Drops expired entries; if that is not enough, drops arbitrary ones down to 90% of the limit
+    private void evict(long now) {
+        entries.values().removeIf(entry -> entry.expiresAt <= now);
+        Iterator<Digest> keys = entries.keySet().iterator();
+        while (entries.size() > maxEntries * 9 / 10 && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private record Entry(Claims claims, long expiresAt) {}
+
+    private static final class Digest {
+        private final byte[] bytes;
+        private final int hash;
+
+        private Digest(byte[] bytes) {
+            this.bytes = bytes;
+            this.hash = Arrays.hashCode(bytes);
+        }
+
+        static Digest of(String token) {
+            try {
+                return new Digest(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Digest digest && Arrays.equals(bytes, digest.bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
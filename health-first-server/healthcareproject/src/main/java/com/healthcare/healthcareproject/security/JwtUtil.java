@@ -12,6 +12,8 @@ public class JwtUtil {
     private final String jwtSecret = "ReplaceWithASecureSecretKeyOfAtLeast32Characters!";
     private final long jwtExpirationMs = 86400000; // 1 day
     private final Key key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    // JwtParser is immutable and thread-safe, so one instance serves every request
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(key).build();
 
     public String generateToken(String subject) {
         return Jwts.builder()
@@ -23,13 +25,17 @@ public class JwtUtil {
     }
 
     public String getSubjectFromToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build()
-                .parseClaimsJws(token).getBody().getSubject();
+        return parseClaims(token).getSubject();
+    }
+
+    // Verifies signature and expiry and returns the claims; throws JwtException for an invalid token
+    public Claims parseClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 
     public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+            parser.parseClaimsJws(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
@@ -0,0 +1,144 @@
+package com.healthcare.healthcareproject.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Token buckets per client IP and per account, checked before a login reaches BCrypt. Each bucket is a single
+// AtomicLong holding its theoretical arrival time (GCRA): taking a token is one CAS, and a bucket whose time is in
+// the past is full, so it can be dropped without losing anything. The maps are capped at max-keys entries each; only
+// full buckets are ever dropped, so spraying new keys cannot reset a throttled one. When a map is full of partly
+// drained buckets, a new key gets no bucket of its own and is limited by the IP bucket alone.
+// Controllers map ThrottledException to 429 with Retry-After
+@Component
+public class LoginThrottle {
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${healthcare.security.login-throttle.enabled:true}")
+    private boolean enabled;
+    @Value("${healthcare.security.login-throttle.ip.burst:20}")
+    private int ipBurst;
+    @Value("${healthcare.security.login-throttle.ip.per-minute:60}")
+    private int ipPerMinute;
+    @Value("${healthcare.security.login-throttle.account.burst:5}")
+    private int accountBurst;
+    @Value("${healthcare.security.login-throttle.account.per-minute:5}")
+    private int accountPerMinute;
+    @Value("${healthcare.security.login-throttle.max-keys:50000}")
+    private int maxKeys;
+
+    LongSupplier clock = System::nanoTime;
+
+    // Eviction walks the whole map, so while it is full it is retried at most once a second
+    private static final long EVICTION_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Map<String, AtomicLong> ipBuckets = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> accountBuckets = new ConcurrentHashMap<>();
+    private final AtomicLong nextIpEviction = new AtomicLong();
+    private final AtomicLong nextAccountEviction = new AtomicLong();
+    private Counter allowed;
+    private Counter ipLimited;
+    private Counter accountLimited;
+
+    @PostConstruct
+    void start() {
+        allowed = decisionCounter("allowed");
+        ipLimited = decisionCounter("ip_limited");
+        accountLimited = decisionCounter("account_limited");
+        nextIpEviction.set(clock.getAsLong());
+        nextAccountEviction.set(clock.getAsLong());
+        Gauge.builder("auth.login.throttle.keys", ipBuckets, Map::size).tag("key", "ip").register(meterRegistry);
+        Gauge.builder("auth.login.throttle.keys", accountBuckets, Map::size).tag("key", "account").register(meterRegistry);
+    }
+
+    // Account key for a login identifier: trimmed and lower-cased so spelling variants share one bucket, or null when
+    // the identifier is missing, in which case only the IP bucket applies
+    public static String accountKey(String kind, String identifier) {
+        if (identifier == null || identifier.isBlank()) return null;
+        return kind + ":" + identifier.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Takes one token from the IP bucket, then from the account bucket; throws when either is empty
+    public void acquire(String clientIp, String account) {
+        if (!enabled) return;
+        long now = clock.getAsLong();
+        long wait = take(ipBuckets, nextIpEviction, clientIp, now, ipBurst, ipPerMinute);
+        if (wait > 0) {
+            ipLimited.increment();
+            throw new ThrottledException(wait);
+        }
+        if (account != null && !account.isBlank()) {
+            wait = take(accountBuckets, nextAccountEviction, account.trim().toLowerCase(Locale.ROOT), now, accountBurst,
+                accountPerMinute);
+            if (wait > 0) {
+                accountLimited.increment();
+                throw new ThrottledException(wait);
+            }
+        }
+        allowed.increment();
+    }
+
+    // 0 when a token was taken (or the map is full and the key has no bucket), otherwise the nanoseconds until the
+    // next one
+    private long take(Map<String, AtomicLong> buckets, AtomicLong nextEviction, String key, long now, int burst, int perMinute) {
+        long interval = TimeUnit.MINUTES.toNanos(1) / perMinute;
+        long tolerance = interval * burst;
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys && !evict(buckets, nextEviction, now)) {
+                return 0;
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+        while (true) {
+            long arrival = bucket.get();
+            long next = Math.max(arrival, now) + interval;
+            if (next - now > tolerance) {
+                return next - now - tolerance;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // Drops full buckets and tells whether that made room. Buckets still holding a debt are never dropped, so a
+    // throttled key stays throttled however many other keys arrive
+    private boolean evict(Map<String, AtomicLong> buckets, AtomicLong nextEviction, long now) {
+        long next = nextEviction.get();
+        if (now - next >= 0 && nextEviction.compareAndSet(next, now + EVICTION_INTERVAL_NANOS)) {
+            buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+        }
+        return buckets.size() < maxKeys;
+    }
+
+    private Counter decisionCounter(String decision) {
+        return Counter.builder("auth.login.throttle")
+            .description("Login attempts by throttle decision, taken before password verification")
+            .tag("decision", decision)
+            .register(meterRegistry);
+    }
+
+    public static class ThrottledException extends RuntimeException {
+        private final long retryAfterSeconds;
+
+        public ThrottledException(long waitNanos) {
+            super("Too many login attempts, retry later");
+            this.retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        }
+
+        public long getRetryAfterSeconds() { return retryAfterSeconds; }
+    }
+}
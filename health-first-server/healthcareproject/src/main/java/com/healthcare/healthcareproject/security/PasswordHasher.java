@@ -0,0 +1,142 @@
+package com.healthcare.healthcareproject.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Runs BCrypt on a small fixed pool instead of request threads, so a login burst can only use that many cores.
+// When the queue is full (or the wait times out) callers get BusyException right away, which controllers map to 503.
+// BCrypt ignores interrupts, so a hash whose caller timed out keeps its worker until it finishes; such abandoned
+// tasks are reported by auth.bcrypt.abandoned, and ones still queued are dropped instead of run
+@Component
+public class PasswordHasher {
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${healthcare.security.bcrypt.cost:12}")
+    private int cost;
+    // 0 means half of the available processors
+    @Value("${healthcare.security.bcrypt.threads:0}")
+    private int threads;
+    @Value("${healthcare.security.bcrypt.queue-capacity:32}")
+    private int queueCapacity;
+    // Wait at cost 12 or below; each cost step above doubles the work, so the wait is scaled the same way
+    @Value("${healthcare.security.bcrypt.timeout-ms:5000}")
+    private long timeoutMs;
+
+    private ThreadPoolExecutor executor;
+    private Timer hashTimer;
+    private Timer verifyTimer;
+    private Counter rejected;
+    private final AtomicInteger abandoned = new AtomicInteger();
+
+    @PostConstruct
+    void start() {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "bcrypt-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+        Gauge.builder("auth.bcrypt.queue.depth", executor, e -> e.getQueue().size())
+            .description("Password hashing tasks waiting for a bcrypt thread")
+            .register(meterRegistry);
+        Gauge.builder("auth.bcrypt.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+        Gauge.builder("auth.bcrypt.abandoned", abandoned, AtomicInteger::get)
+            .description("Hashes still running on a bcrypt thread after their caller gave up waiting")
+            .register(meterRegistry);
+        hashTimer = Timer.builder("auth.bcrypt.duration").tag("operation", "hash").register(meterRegistry);
+        verifyTimer = Timer.builder("auth.bcrypt.duration").tag("operation", "verify").register(meterRegistry);
+        rejected = Counter.builder("auth.bcrypt.rejected")
+            .description("Hashing requests refused because the bcrypt queue was full or the wait timed out or was interrupted")
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    public String hash(String rawPassword) {
+        return run(hashTimer, () -> BCrypt.hashpw(rawPassword, BCrypt.gensalt(cost)));
+    }
+
+    public boolean matches(String rawPassword, String passwordHash) {
+        return run(verifyTimer, () -> BCrypt.checkpw(rawPassword, passwordHash));
+    }
+
+    // True when the hash was made with a different cost than the configured one ($2a$<cost>$...)
+    public boolean needsRehash(String passwordHash) {
+        if (passwordHash == null || passwordHash.length() < 7) return false;
+        try {
+            return Integer.parseInt(passwordHash.substring(4, 6)) != cost;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private <T> T run(Timer timer, Supplier<T> task) {
+        // Set by whichever comes first: the task finishing or the caller abandoning it
+        AtomicBoolean settled = new AtomicBoolean();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                try {
+                    return timer.record(task);
+                } finally {
+                    if (!settled.compareAndSet(false, true)) abandoned.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new BusyException();
+        }
+        try {
+            return future.get(timeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            abandon(future, settled);
+            rejected.increment();
+            throw new BusyException();
+        } catch (InterruptedException e) {
+            abandon(future, settled);
+            rejected.increment();
+            Thread.currentThread().interrupt();
+            throw new BusyException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    long timeoutMillis() {
+        return cost > 12 ? timeoutMs << Math.min(cost - 12, 16) : timeoutMs;
+    }
+
+    // A task still in the queue is removed so it never runs; a running one cannot be stopped, so it is counted as
+    // abandoned until it finishes
+    private void abandon(Future<?> future, AtomicBoolean settled) {
+        if (future instanceof Runnable queued && executor.remove(queued)) return;
+        abandoned.incrementAndGet();
+        if (!settled.compareAndSet(false, true)) abandoned.decrementAndGet();
+    }
+
+    public static class BusyException extends RuntimeException {
+        public BusyException() {
+            super("Password hashing is at capacity, retry shortly");
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.healthcare.healthcareproject.security;
 
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -11,12 +13,17 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 
 @Configuration
 public class SecurityConfig {
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http, JwtAuthFilter jwtAuthFilter) throws Exception {
         http
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                // Streamed (NDJSON) responses finish on an async dispatch; the request was already authorized
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers(
                     "/api/v1/provider/register",
                     "/api/v1/provider/login",
@@ -30,8 +37,12 @@ public class SecurityConfig {
                     "/swagger-resources/**",
                     "/webjars/**",
                     "/configuration/ui",
-                    "/configuration/security"
+                    "/configuration/security",
+                    "/actuator/health"
                 ).permitAll()
+                // The scrape endpoint is only open on the internal management port, never on the API port
+                .requestMatchers(request -> managementPort > 0 && request.getLocalPort() == managementPort
+                    && "/actuator/prometheus".equals(request.getRequestURI())).permitAll()
                 .anyRequest().authenticated()
             )
             .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
@@ -1,76 +1,307 @@
 package com.healthcare.healthcareproject.service;
 
+import com.healthcare.healthcareproject.dto.BatchBookingRequest;
+import com.healthcare.healthcareproject.dto.BatchBookingResponse;
 import com.healthcare.healthcareproject.dto.BookAppointmentRequest;
+import com.healthcare.healthcareproject.dto.CursorPage;
+import com.healthcare.healthcareproject.dto.SlotSummary;
+import com.healthcare.healthcareproject.event.SlotChangedEvent;
 import com.healthcare.healthcareproject.model.AppointmentSlot;
+import com.healthcare.healthcareproject.model.Provider;
 import com.healthcare.healthcareproject.repository.AppointmentSlotRepository;
+import com.healthcare.healthcareproject.repository.ProviderRepository;
+import com.healthcare.healthcareproject.util.ProviderSpecialization;
+import com.healthcare.healthcareproject.util.SlotDateRange;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class AppointmentBookingService {
+    private static final List<AppointmentSlot.Status> AVAILABLE = List.of(AppointmentSlot.Status.AVAILABLE);
 
     @Autowired
     private AppointmentSlotRepository slotRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @Autowired
+    private SlotRuleService slotRuleService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     public Page<AppointmentSlot> getBookedAppointments(UUID providerId, LocalDate startDate, LocalDate endDate, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("slotStartTime").descending());
-        Page<AppointmentSlot> pageResult;
-
+        Instant from = SlotDateRange.from(startDate);
+        Instant to = SlotDateRange.until(endDate);
         if (providerId != null) {
-            pageResult = slotRepository.findByProviderIdAndStatus(providerId, AppointmentSlot.Status.BOOKED, pageable);
-        } else {
-            pageResult = slotRepository.findByStatus(AppointmentSlot.Status.BOOKED, pageable);
+            return slotRepository.findPageInRange(providerId, AppointmentSlot.Status.BOOKED, from, to, pageable);
+        }
+        return slotRepository.findPageInRange(AppointmentSlot.Status.BOOKED, from, to, pageable);
+    }
+
+    // Keyset variant: pages are anchored on the (slotStartTime, id) of the last row, so deep pages cost the same as the first
+    public CursorPage<AppointmentSlot> getBookedAppointments(UUID providerId, LocalDate startDate, LocalDate endDate,
+                                                             String cursor, int size, boolean includeTotal) {
+        Instant from = SlotDateRange.from(startDate);
+        Instant to = SlotDateRange.until(endDate);
+        Instant cursorStart = SlotDateRange.MAX;
+        UUID cursorId = new UUID(0, 0);
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeCursor(cursor);
+            try {
+                cursorStart = Instant.parse(parts[0]);
+            } catch (DateTimeException ex) {
+                throw new IllegalArgumentException("Invalid cursor", ex);
+            }
+            cursorId = UUID.fromString(parts[1]);
         }
+        List<AppointmentSlot> rows = providerId != null
+            ? slotRepository.findPageBefore(providerId, AppointmentSlot.Status.BOOKED, from, to, cursorStart, cursorId, Limit.of(size + 1))
+            : slotRepository.findPageBefore(AppointmentSlot.Status.BOOKED, from, to, cursorStart, cursorId, Limit.of(size + 1));
 
-        // Filter by date range if provided
-        if (startDate != null || endDate != null) {
-            List<AppointmentSlot> filtered = pageResult.getContent().stream()
-                .filter(slot -> startDate == null || !slot.getSlotStartTime().toLocalDate().isBefore(startDate))
-                .filter(slot -> endDate == null || !slot.getSlotEndTime().toLocalDate().isAfter(endDate))
-                .toList();
-            return new PageImpl<>(filtered, pageable, filtered.size());
+        CursorPage<AppointmentSlot> result = new CursorPage<>();
+        boolean hasNext = rows.size() > size;
+        List<AppointmentSlot> content = hasNext ? rows.subList(0, size) : rows;
+        result.setContent(content);
+        result.setSize(size);
+        result.setHasNext(hasNext);
+        if (hasNext) {
+            AppointmentSlot last = content.get(content.size() - 1);
+            result.setNextCursor(encodeCursor(last));
+        }
+        if (includeTotal) {
+            result.setTotalElements(providerId != null
+                ? slotRepository.countInRange(providerId, AppointmentSlot.Status.BOOKED, from, to)
+                : slotRepository.countInRange(AppointmentSlot.Status.BOOKED, from, to));
         }
-        return pageResult;
+        return result;
     }
 
-    public List<AppointmentSlot> getAvailableSlots(UUID providerId, String specialization, LocalDate startDate, LocalDate endDate) {
-        List<AppointmentSlot> allSlots;
-        
-        if (providerId != null) {
-            allSlots = slotRepository.findByProviderId(providerId);
-        } else {
-            allSlots = slotRepository.findAll();
+    private static String encodeCursor(AppointmentSlot slot) {
+        String raw = slot.getSlotStartTime() + "|" + slot.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return parts;
+    }
+
+    // Open slots of one provider, of the providers of a specialization, or of everyone when both are null
+    public List<SlotSummary> getAvailableSlots(UUID providerId, ProviderSpecialization specialization, LocalDate startDate, LocalDate endDate) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Instant from = SlotDateRange.from(startDate);
+        Instant to = SlotDateRange.until(endDate);
+        List<SlotSummary> slots = List.of();
+        if (!excludes(providerId, specialization)) {
+            List<SlotSummary> rows = providerId != null
+                ? slotRepository.findSummariesInRange(providerId, AVAILABLE, from, to)
+                : specialization != null
+                ? slotRepository.findSummariesInRange(specialization, AVAILABLE, from, to)
+                : slotRepository.findSummariesInRange(AVAILABLE, from, to);
+            slots = slotRuleService.withOpenSlots(rows, providerId, specialization, from, to);
+        }
+        sample.stop(Timer.builder("slots.search").tag("endpoint", "available").register(meterRegistry));
+        DistributionSummary.builder("slots.search.results").tag("endpoint", "available").register(meterRegistry).record(slots.size());
+        return slots;
+    }
+
+    // Same filter as getAvailableSlots, handed to the action one slot at a time from a database cursor (NDJSON endpoint)
+    @Transactional(readOnly = true)
+    public long streamAvailableSlots(UUID providerId, ProviderSpecialization specialization, LocalDate startDate, LocalDate endDate,
+                                     Consumer<SlotSummary> action) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Instant from = SlotDateRange.from(startDate);
+        Instant to = SlotDateRange.until(endDate);
+        long count = 0;
+        if (!excludes(providerId, specialization)) {
+            try (Stream<SlotSummary> rows = providerId != null
+                    ? slotRepository.streamSummariesInRange(providerId, AVAILABLE, from, to)
+                    : specialization != null
+                    ? slotRepository.streamSummariesInRange(specialization, AVAILABLE, from, to)
+                    : slotRepository.streamSummariesInRange(AVAILABLE, from, to)) {
+                count = slotRuleService.forEachWithOpenSlots(rows, providerId, specialization, from, to, action);
+            }
+        }
+        sample.stop(Timer.builder("slots.search").tag("endpoint", "available_stream").register(meterRegistry));
+        DistributionSummary.builder("slots.search.results").tag("endpoint", "available_stream").register(meterRegistry).record(count);
+        return count;
+    }
+
+    // Same filter as getAvailableSlots, one page at a time so a wide range never loads in full
+    public Slice<SlotSummary> getAvailableSlots(UUID providerId, ProviderSpecialization specialization, LocalDate startDate, LocalDate endDate,
+                                                int page, int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        Instant from = SlotDateRange.from(startDate);
+        Instant to = SlotDateRange.until(endDate);
+        if (excludes(providerId, specialization)) {
+            return new SliceImpl<>(List.of(), pageable, false);
         }
-        
-        return allSlots.stream()
-            .filter(slot -> slot.getStatus() == AppointmentSlot.Status.AVAILABLE)
-            .filter(slot -> startDate == null || !slot.getSlotStartTime().toLocalDate().isBefore(startDate))
-            .filter(slot -> endDate == null || !slot.getSlotEndTime().toLocalDate().isAfter(endDate))
-            .toList();
+        if (!slotRuleService.hasRules(providerId, specialization, from, to)) {
+            return availableSlice(providerId, specialization, from, to, pageable);
+        }
+        // Rule slots interleave with stored ones: the first (page + 1) * size + 1 of each are enough to cut the merged
+        // page, and no rule slot starting after the last of those stored rows can reach it either
+        int head = (page + 1) * size + 1;
+        List<SlotSummary> rows = availableSlice(providerId, specialization, from, to, PageRequest.of(0, head)).getContent();
+        Instant until = to;
+        if (rows.size() == head) {
+            Instant reach = rows.get(head - 1).slotStartTime().plusSeconds(SlotGenerator.MAX_SLOT_MINUTES * 60L + 1);
+            if (reach.isBefore(to)) {
+                until = reach;
+            }
+        }
+        List<SlotSummary> merged = new ArrayList<>(rows);
+        merged.addAll(slotRuleService.openSlotSummaries(providerId, specialization, from, until, head));
+        merged.sort(Comparator.comparing(SlotSummary::slotStartTime));
+        int first = Math.min(page * size, merged.size());
+        int last = Math.min(first + size, merged.size());
+        return new SliceImpl<>(merged.subList(first, last), pageable, merged.size() > last);
+    }
+
+    private Slice<SlotSummary> availableSlice(UUID providerId, ProviderSpecialization specialization,
+                                              Instant from, Instant to, Pageable pageable) {
+        return providerId != null
+            ? slotRepository.findSummarySliceInRange(providerId, AVAILABLE, from, to, pageable)
+            : specialization != null
+            ? slotRepository.findSummarySliceInRange(specialization, AVAILABLE, from, to, pageable)
+            : slotRepository.findSummarySliceInRange(AVAILABLE, from, to, pageable);
     }
 
+    // A provider filter already narrows the listing to one provider's rows; a specialization given with it only has
+    // to match that provider (read through the provider entity cache)
+    private boolean excludes(UUID providerId, ProviderSpecialization specialization) {
+        return providerId != null && specialization != null
+            && providerRepository.findById(providerId).map(Provider::getSpecialization).orElse(null) != specialization;
+    }
+
+    // Booking is a single conditional UPDATE (status AVAILABLE -> BOOKED) in its own short transaction, so concurrent
+    // requests for the same slot cannot both win and the row lock is held only for that statement
     public Optional<AppointmentSlot> bookAppointment(BookAppointmentRequest request) {
-        Optional<AppointmentSlot> slotOpt = slotRepository.findById(request.getSlotId());
-        if (slotOpt.isEmpty()) return Optional.empty();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        // Generate a unique booking reference
+        String bookingRef = "BK-" + System.currentTimeMillis() + "-" + request.getPatientId().toString().substring(0, 8);
 
-        AppointmentSlot slot = slotOpt.get();
-        if (slot.getStatus() != AppointmentSlot.Status.AVAILABLE) return Optional.empty();
+        if (slotRepository.book(request.getSlotId(), request.getPatientId(), bookingRef, Instant.now()) == 1) {
+            AppointmentSlot slot = slotRepository.findById(request.getSlotId()).orElseThrow();
+            eventPublisher.publishEvent(SlotChangedEvent.updated(slot, AppointmentSlot.Status.AVAILABLE));
+            return recordBooking(sample, "booked", slot);
+        }
+        // The existence check only runs once the update has failed, to tell a conflict from an unknown id
+        if (slotRepository.existsById(request.getSlotId())) return recordBooking(sample, "conflict", null);
+        if (!SlotGenerator.isVirtual(request.getSlotId())) return recordBooking(sample, "not_found", null);
 
+        // Open rule slot: the booking writes its first row, and losing the insert race means someone else booked it
+        Optional<AppointmentSlot> slotOpt = slotRuleService.findOpenSlot(request.getSlotId());
+        if (slotOpt.isEmpty()) return recordBooking(sample, "not_found", null);
+        AppointmentSlot slot = slotOpt.get();
         slot.setStatus(AppointmentSlot.Status.BOOKED);
         slot.setPatientId(request.getPatientId());
-        
-        // Generate a unique booking reference
-        String bookingRef = "BK-" + System.currentTimeMillis() + "-" + request.getPatientId().toString().substring(0, 8);
         slot.setBookingReference(bookingRef);
-        
-        slotRepository.save(slot);
-        return Optional.of(slot);
+        if (!slotRuleService.materialize(slot)) return recordBooking(sample, "conflict", null);
+        eventPublisher.publishEvent(SlotChangedEvent.updated(slot, AppointmentSlot.Status.AVAILABLE));
+        return recordBooking(sample, "booked", slot);
+    }
+
+    private Optional<AppointmentSlot> recordBooking(Timer.Sample sample, String outcome, AppointmentSlot slot) {
+        sample.stop(Timer.builder("appointments.booking")
+            .description("Single-slot bookings by outcome: booked, conflict (already taken) or not_found")
+            .tag("outcome", outcome)
+            .register(meterRegistry));
+        return Optional.ofNullable(slot);
+    }
+
+    // Books all slots or none: stored slots are booked with one set-based UPDATE and open rule slots are inserted,
+    // all in one transaction that is rolled back if any slot is missing or already taken
+    @Transactional
+    public BatchBookingResponse bookAppointments(BatchBookingRequest request) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        // The reference tells this batch's rows apart from rows another batch booked concurrently, so it must be
+        // unique per call: a time-based one repeats for two batches of one patient within the same millisecond
+        String bookingRef = "BK-" + UUID.randomUUID();
+        List<UUID> slotIds = new ArrayList<>(new LinkedHashSet<>(request.getSlotIds()));
+        slotRepository.bookAll(slotIds, request.getPatientId(), bookingRef, Instant.now());
+        Map<UUID, AppointmentSlot> stored = new HashMap<>();
+        for (AppointmentSlot slot : slotRepository.findAllById(slotIds)) {
+            stored.put(slot.getId(), slot);
+        }
+
+        List<BatchBookingResponse.SlotResult> results = new ArrayList<>(slotIds.size());
+        boolean allBooked = true;
+        for (UUID slotId : slotIds) {
+            AppointmentSlot slot = stored.get(slotId);
+            BatchBookingResponse.Outcome outcome;
+            if (slot != null) {
+                outcome = bookingRef.equals(slot.getBookingReference())
+                    ? BatchBookingResponse.Outcome.BOOKED : BatchBookingResponse.Outcome.UNAVAILABLE;
+            } else {
+                slot = slotRuleService.findOpenSlot(slotId).orElse(null);
+                if (slot == null) {
+                    outcome = BatchBookingResponse.Outcome.NOT_FOUND;
+                } else {
+                    slot.setStatus(AppointmentSlot.Status.BOOKED);
+                    slot.setPatientId(request.getPatientId());
+                    slot.setBookingReference(bookingRef);
+                    outcome = slotRuleService.materialize(slot)
+                        ? BatchBookingResponse.Outcome.BOOKED : BatchBookingResponse.Outcome.UNAVAILABLE;
+                }
+            }
+            allBooked &= outcome == BatchBookingResponse.Outcome.BOOKED;
+            results.add(new BatchBookingResponse.SlotResult(slotId, outcome, outcome == BatchBookingResponse.Outcome.BOOKED ? slot : null));
+        }
+
+        BatchBookingResponse response = new BatchBookingResponse();
+        response.setBooked(allBooked);
+        response.setResults(results);
+        if (!allBooked) {
+            boolean conflict = results.stream().anyMatch(result -> result.getOutcome() == BatchBookingResponse.Outcome.UNAVAILABLE);
+            recordBatchBooking(sample, conflict ? "conflict" : "not_found");
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            for (BatchBookingResponse.SlotResult result : results) {
+                if (result.getOutcome() == BatchBookingResponse.Outcome.BOOKED) {
+                    result.setOutcome(BatchBookingResponse.Outcome.ROLLED_BACK);
+                    result.setSlot(null);
+                }
+            }
+            return response;
+        }
+        response.setBookingReference(bookingRef);
+        for (BatchBookingResponse.SlotResult result : results) {
+            eventPublisher.publishEvent(SlotChangedEvent.updated(result.getSlot(), AppointmentSlot.Status.AVAILABLE));
+        }
+        recordBatchBooking(sample, "booked");
+        return response;
+    }
+
+    private void recordBatchBooking(Timer.Sample sample, String outcome) {
+        sample.stop(Timer.builder("appointments.booking.batch").tag("outcome", outcome).register(meterRegistry));
     }
-}
\ No newline at end of file
+}
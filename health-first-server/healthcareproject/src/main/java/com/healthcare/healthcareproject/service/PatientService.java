@@ -7,8 +7,12 @@ import com.healthcare.healthcareproject.dto.PatientLoginResponse;
 import com.healthcare.healthcareproject.model.Patient;
 import com.healthcare.healthcareproject.repository.PatientRepository;
 import com.healthcare.healthcareproject.security.JwtUtil;
+import com.healthcare.healthcareproject.security.PasswordHasher;
+import com.healthcare.healthcareproject.util.UniqueConstraints;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,7 +23,9 @@ import java.util.Map;
 
 @Service
 public class PatientService {
-    private static final int BCRYPT_ROUNDS = 12;
+    private static final Map<String, String[]> DUPLICATE_MESSAGES = Map.of(
+        "email", new String[]{"Email is already registered"},
+        "phone_number", new String[]{"Phone number is already registered"});
 
     @Autowired
     private PatientRepository patientRepository;
@@ -27,6 +33,12 @@ public class PatientService {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Transactional
     public PatientRegistrationResponse registerPatient(PatientRegistrationRequest request) {
         Map<String, String[]> errors = new HashMap<>();
@@ -48,18 +60,16 @@ public class PatientService {
         if (!request.getPassword().equals(request.getConfirmPassword())) {
             errors.put("confirm_password", new String[]{"Passwords do not match"});
         }
-        // Duplicate checks
-        if (patientRepository.findByEmail(request.getEmail()).isPresent()) {
-            errors.put("email", new String[]{"Email is already registered"});
-        }
-        if (patientRepository.findByPhoneNumber(request.getPhoneNumber()).isPresent()) {
-            errors.put("phone_number", new String[]{"Phone number is already registered"});
+        // Duplicate checks (one query for both keys)
+        for (PatientRepository.UniqueKeys existing : patientRepository.findUniqueKeysByEmailOrPhoneNumber(request.getEmail(), request.getPhoneNumber())) {
+            if (request.getEmail().equals(existing.getEmail())) errors.put("email", DUPLICATE_MESSAGES.get("email"));
+            if (request.getPhoneNumber().equals(existing.getPhoneNumber())) errors.put("phone_number", DUPLICATE_MESSAGES.get("phone_number"));
         }
         if (!errors.isEmpty()) {
             throw new PatientRegistrationException(errors);
         }
         // Hash password
-        String passwordHash = BCrypt.hashpw(request.getPassword(), BCrypt.gensalt(BCRYPT_ROUNDS));
+        String passwordHash = passwordHasher.hash(request.getPassword());
         // Map DTO to entity
         Patient patient = new Patient();
         patient.setFirstName(request.getFirstName());
@@ -99,7 +109,14 @@ public class PatientService {
         patient.setEmailVerified(false);
         patient.setPhoneVerified(false);
         patient.setIsActive(true);
-        patientRepository.save(patient);
+        // A concurrent registration with the same key can still get in first; the unique constraint catches that
+        try {
+            patientRepository.saveAndFlush(patient);
+        } catch (DataIntegrityViolationException ex) {
+            String column = UniqueConstraints.violatedColumn(ex, DUPLICATE_MESSAGES.keySet());
+            if (column == null) throw ex;
+            throw new PatientRegistrationException(Map.of(column, DUPLICATE_MESSAGES.get(column)));
+        }
         // Prepare response
         PatientRegistrationResponse resp = new PatientRegistrationResponse();
         resp.setSuccess(true);
@@ -115,6 +132,21 @@ public class PatientService {
     }
 
     public PatientLoginResponse login(PatientLoginRequest request) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            PatientLoginResponse response = authenticate(request);
+            outcome = response.isSuccess() ? "success" : "failure";
+            return response;
+        } catch (PasswordHasher.BusyException e) {
+            outcome = "busy";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("auth.login").tag("role", "patient").tag("outcome", outcome).register(meterRegistry));
+        }
+    }
+
+    private PatientLoginResponse authenticate(PatientLoginRequest request) {
         PatientLoginResponse response = new PatientLoginResponse();
         if ((request.getEmail() == null || request.getEmail().isBlank()) && (request.getPhoneNumber() == null || request.getPhoneNumber().isBlank())) {
             response.setSuccess(false);
@@ -140,12 +172,20 @@ public class PatientService {
             response.setErrorCode("INVALID_CREDENTIALS");
             return response;
         }
-        if (!BCrypt.checkpw(request.getPassword(), patient.getPasswordHash())) {
+        if (!passwordHasher.matches(request.getPassword(), patient.getPasswordHash())) {
             response.setSuccess(false);
             response.setMessage("Invalid credentials");
             response.setErrorCode("INVALID_CREDENTIALS");
             return response;
         }
+        // Upgrade hashes made with an older cost; a busy hasher only postpones that to a later login
+        if (passwordHasher.needsRehash(patient.getPasswordHash())) {
+            try {
+                patient.setPasswordHash(passwordHasher.hash(request.getPassword()));
+                patientRepository.save(patient);
+            } catch (PasswordHasher.BusyException ignored) {
+            }
+        }
         // JWT claims
         String token = jwtUtil.generateTokenWithClaims(patient.getId().toString(), patient.getEmail(), "patient", 1800);
         Map<String, Object> patientData = new java.util.HashMap<>();
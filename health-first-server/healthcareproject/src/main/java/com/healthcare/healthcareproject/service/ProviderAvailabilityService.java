@@ -2,24 +2,64 @@ package com.healthcare.healthcareproject.service;
 
 import com.healthcare.healthcareproject.dto.ProviderAvailabilityRequest;
 import com.healthcare.healthcareproject.dto.ProviderAvailabilityResponse;
+import com.healthcare.healthcareproject.dto.ResourceVersion;
+import com.healthcare.healthcareproject.dto.SlotSummary;
+import com.healthcare.healthcareproject.event.AvailabilityChangedEvent;
+import com.healthcare.healthcareproject.event.SlotChangedEvent;
+import com.healthcare.healthcareproject.geo.ZipCodeGeocoder;
 import com.healthcare.healthcareproject.model.ProviderAvailability;
 import com.healthcare.healthcareproject.model.AppointmentSlot;
 import com.healthcare.healthcareproject.repository.ProviderAvailabilityRepository;
 import com.healthcare.healthcareproject.repository.AppointmentSlotRepository;
+import com.healthcare.healthcareproject.repository.RowVersion;
+import com.healthcare.healthcareproject.search.SlotSearchIndex;
+import com.healthcare.healthcareproject.util.SlotDateRange;
+import com.healthcare.healthcareproject.util.SlotTimes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.*;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.zone.ZoneRules;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class ProviderAvailabilityService {
+    private static final int INSERT_CHUNK_SIZE = 500;
+
     @Autowired
     private ProviderAvailabilityRepository availabilityRepository;
     @Autowired
     private AppointmentSlotRepository slotRepository;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private SlotRuleService slotRuleService;
+    @Autowired
+    private ZipCodeGeocoder zipCodeGeocoder;
+    @Autowired
+    private SlotSearchIndex searchIndex;
+
+    // eager: one row per generated slot; lazy: keep the availability as a rule and only store changed slots
+    @Value("${healthcare.slots.materialization:eager}")
+    private String materialization;
 
     @Transactional
     public ProviderAvailabilityResponse createAvailability(UUID providerId, ProviderAvailabilityRequest request) {
@@ -33,29 +73,16 @@ public class ProviderAvailabilityService {
             throw new IllegalArgumentException("slot_duration must divide evenly into the time range");
         }
         // Validate timezone
-        ZoneId zoneId;
+        ZoneRules zoneRules;
         try {
-            zoneId = ZoneId.of(request.getTimezone());
+            zoneRules = SlotTimes.rules(request.getTimezone());
         } catch (Exception e) {
             throw new IllegalArgumentException("Invalid timezone");
         }
         // Recurrence
         LocalDate recurrenceEnd = request.isRecurring() && request.getRecurrenceEndDate() != null ? request.getRecurrenceEndDate() : request.getDate();
-        List<LocalDate> dates = new ArrayList<>();
-        LocalDate current = request.getDate();
-        if (request.isRecurring() && request.getRecurrencePattern() != null) {
-            while (!current.isAfter(recurrenceEnd)) {
-                dates.add(current);
-                switch (request.getRecurrencePattern().toLowerCase()) {
-                    case "daily": current = current.plusDays(1); break;
-                    case "weekly": current = current.plusWeeks(1); break;
-                    case "monthly": current = current.plusMonths(1); break;
-                    default: throw new IllegalArgumentException("Invalid recurrence_pattern");
-                }
-            }
-        } else {
-            dates.add(current);
-        }
+        List<LocalDate> dates = SlotGenerator.recurrenceDates(request.getDate(), request.isRecurring(), request.getRecurrencePattern(),
+            recurrenceEnd, request.getDate(), recurrenceEnd);
         // Create ProviderAvailability
         ProviderAvailability availability = new ProviderAvailability();
         availability.setProviderId(providerId);
@@ -75,6 +102,10 @@ public class ProviderAvailabilityService {
         location.setType((String) request.getLocation().getOrDefault("type", ""));
         location.setAddress((String) request.getLocation().getOrDefault("address", ""));
         location.setRoomNumber((String) request.getLocation().getOrDefault("room_number", null));
+        zipCodeGeocoder.locate(location.getAddress()).ifPresent(point -> {
+            location.setLatitude(point.latitude());
+            location.setLongitude(point.longitude());
+        });
         availability.setLocation(location);
         // Pricing
         if (request.getPricing() != null) {
@@ -90,35 +121,50 @@ public class ProviderAvailabilityService {
         availability.setMaxAppointmentsPerSlot(1);
         availability.setCurrentAppointments(0);
         availability = availabilityRepository.save(availability);
-        // Generate slots
-        int slotsCreated = 0;
-        int totalAppointmentsAvailable = 0;
-        for (LocalDate date : dates) {
-            LocalTime slotStart = start;
-            while (slotStart.plusMinutes(request.getSlotDuration()).isBefore(end) || slotStart.plusMinutes(request.getSlotDuration()).equals(end)) {
-                LocalTime slotEnd = slotStart.plusMinutes(request.getSlotDuration());
-                ZonedDateTime slotStartZdt = ZonedDateTime.of(date, slotStart, zoneId).withZoneSameInstant(ZoneOffset.UTC);
-                ZonedDateTime slotEndZdt = ZonedDateTime.of(date, slotEnd, zoneId).withZoneSameInstant(ZoneOffset.UTC);
-                // Overlap/conflict check (simplified: can be expanded)
-                List<AppointmentSlot> overlapping = slotRepository.findByProviderId(providerId).stream()
-                    .filter(s -> s.getSlotStartTime().isBefore(slotEndZdt) && s.getSlotEndTime().isAfter(slotStartZdt))
-                    .toList();
-                if (overlapping.isEmpty()) {
-                    AppointmentSlot slot = new AppointmentSlot();
-                    slot.setAvailabilityId(availability.getId());
-                    slot.setProviderId(providerId);
-                    slot.setSlotStartTime(slotStartZdt);
-                    slot.setSlotEndTime(slotEndZdt);
-                    slot.setStatus(AppointmentSlot.Status.AVAILABLE);
-                    slot.setAppointmentType(request.getAppointmentType());
-                    slot.setBookingReference(UUID.randomUUID().toString());
-                    slotRepository.save(slot);
-                    slotsCreated++;
-                    totalAppointmentsAvailable++;
+        // Generate slots: build every candidate and drop those overlapping existing slots (stored rows and open slots
+        // of lazy rules). Candidates the index's busy/free bitmaps show as busy are dropped up front; the bitmaps only
+        // see this instance's committed writes, so every candidate kept is still swept against the existing slots read
+        // in one range query each. Eager availability inserts the survivors in JDBC batches; lazy availability only
+        // keeps the rule and remembers which candidates were rejected
+        boolean lazyMaterialization = "lazy".equalsIgnoreCase(materialization);
+        long started = System.nanoTime();
+        List<AppointmentSlot> candidates = SlotGenerator.buildSlots(availability, dates, start, end, zoneRules,
+            request.getSlotDuration(), request.getBreakDuration(), request.getAppointmentType());
+        List<AppointmentSlot> unblocked = candidates;
+        if (searchIndex.isCalendarReady()) {
+            unblocked = new ArrayList<>(candidates.size());
+            for (AppointmentSlot candidate : candidates) {
+                if (!searchIndex.isBusy(providerId, candidate.getSlotStartTime(), candidate.getSlotEndTime())) {
+                    unblocked.add(candidate);
                 }
-                slotStart = slotEnd.plusMinutes(request.getBreakDuration());
             }
         }
+        List<AppointmentSlot> createdSlots = withoutExistingOverlaps(providerId, unblocked);
+        if (lazyMaterialization) {
+            Set<AppointmentSlot> accepted = Collections.newSetFromMap(new IdentityHashMap<>());
+            accepted.addAll(createdSlots);
+            for (AppointmentSlot candidate : candidates) {
+                if (!accepted.contains(candidate)) {
+                    availability.getExcludedSlotStarts().add(SlotTimes.epochMinute(candidate.getSlotStartTime()));
+                }
+            }
+            availability.setMaterialization(ProviderAvailability.SlotMaterialization.LAZY);
+            availability.setSlotKey(ThreadLocalRandom.current().nextLong());
+            availability = availabilityRepository.save(availability);
+        } else {
+            for (int i = 0; i < createdSlots.size(); i += INSERT_CHUNK_SIZE) {
+                slotRepository.saveAll(createdSlots.subList(i, Math.min(i + INSERT_CHUNK_SIZE, createdSlots.size())));
+                slotRepository.flush();
+                entityManager.clear();
+            }
+        }
+        recordGeneration(createdSlots.size(), System.nanoTime() - started);
+        int slotsCreated = createdSlots.size();
+        int totalAppointmentsAvailable = createdSlots.size();
+        eventPublisher.publishEvent(new AvailabilityChangedEvent(availability));
+        if (!lazyMaterialization) {
+            eventPublisher.publishEvent(SlotChangedEvent.created(createdSlots));
+        }
         // Prepare response
         ProviderAvailabilityResponse resp = new ProviderAvailabilityResponse();
         resp.setAvailabilityId(availability.getId().toString());
@@ -130,4 +176,123 @@ public class ProviderAvailabilityService {
         resp.setTotalAppointmentsAvailable(totalAppointmentsAvailable);
         return resp;
     }
-} 
\ No newline at end of file
+
+    private void recordGeneration(int slots, long elapsedNanos) {
+        Timer.builder("availability.slots.generation")
+            .description("Time to generate and insert the slots of one availability")
+            .register(meterRegistry)
+            .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        Counter.builder("availability.slots.created").register(meterRegistry).increment(slots);
+        if (slots > 0 && elapsedNanos > 0) {
+            DistributionSummary.builder("availability.slots.generation.rate")
+                .description("Slots generated per second by createAvailability")
+                .baseUnit("slots/s")
+                .register(meterRegistry)
+                .record(slots * 1_000_000_000.0 / elapsedNanos);
+        }
+    }
+
+    // Candidates (sorted by start) that overlap no stored slot or open rule slot of the provider
+    private List<AppointmentSlot> withoutExistingOverlaps(UUID providerId, List<AppointmentSlot> candidates) {
+        if (candidates.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Instant rangeStart = candidates.get(0).getSlotStartTime();
+        Instant rangeEnd = candidates.get(candidates.size() - 1).getSlotEndTime();
+        Instant scanFrom = rangeStart.minusSeconds(SlotGenerator.MAX_SLOT_MINUTES * 60L);
+        List<AppointmentSlot> existing = new ArrayList<>(slotRepository.findOverlapping(providerId,
+            EnumSet.allOf(AppointmentSlot.Status.class), scanFrom, rangeStart, rangeEnd));
+        existing.addAll(slotRuleService.openSlots(providerId, scanFrom, rangeEnd.plusSeconds(1)));
+        existing.sort(Comparator.comparing(AppointmentSlot::getSlotStartTime));
+        return SlotGenerator.withoutOverlaps(candidates, existing);
+    }
+
+    // A stored slot, or the open rule slot behind a rule-derived id
+    public Optional<AppointmentSlot> findSlot(UUID slotId) {
+        Optional<AppointmentSlot> slot = slotRepository.findById(slotId);
+        return slot.isPresent() ? slot : slotRuleService.findOpenSlot(slotId);
+    }
+
+    // Rule slots are written as a row on their first change; empty when another request wrote it first
+    @Transactional
+    public Optional<AppointmentSlot> saveSlot(AppointmentSlot slot, AppointmentSlot.Status previousStatus) {
+        if (SlotGenerator.isVirtual(slot.getId()) && !slotRepository.existsById(slot.getId())) {
+            if (!slotRuleService.materialize(slot)) {
+                return Optional.empty();
+            }
+        } else {
+            slot = slotRepository.save(slot);
+        }
+        eventPublisher.publishEvent(SlotChangedEvent.updated(slot, previousStatus));
+        return Optional.of(slot);
+    }
+
+    @Transactional
+    public void deleteSlot(AppointmentSlot slot) {
+        if (SlotGenerator.isVirtual(slot.getId())) {
+            slotRuleService.exclude(slot);
+        } else {
+            slotRepository.delete(slot);
+            // A deleted row leaves nothing behind to carry an updatedAt, so its availability records the change
+            availabilityRepository.touch(slot.getAvailabilityId(), Instant.now());
+        }
+        eventPublisher.publishEvent(SlotChangedEvent.deleted(slot));
+    }
+
+    // Dates are days in zone, or UTC days when zone is null
+    public List<SlotSummary> getProviderAvailability(UUID providerId, LocalDate startDate, LocalDate endDate, ZoneId zone,
+                                                     String status, String appointmentType) {
+        Collection<AppointmentSlot.Status> statuses = statuses(status);
+        Instant from = SlotDateRange.from(startDate, zone);
+        Instant to = SlotDateRange.until(endDate, zone);
+        List<SlotSummary> slots = slotRepository.findSummariesInRange(providerId, statuses, from, to);
+        if (statuses.contains(AppointmentSlot.Status.AVAILABLE)) {
+            slots = slotRuleService.withOpenSlots(slots, providerId, null, from, to);
+        }
+        if (appointmentType == null || appointmentType.isBlank()) {
+            return slots;
+        }
+        return slots.stream().filter(slot -> appointmentType.equalsIgnoreCase(slot.appointmentType())).toList();
+    }
+
+    // Validators for getProviderAvailability, from two aggregate queries instead of the slot list: the slots in the
+    // range and the provider's availabilities (rule edits and slot deletions). Status and type filters are ignored,
+    // so a change to any slot in the range invalidates every filtered view of it
+    public ResourceVersion availabilityVersion(UUID providerId, LocalDate startDate, LocalDate endDate, ZoneId zone) {
+        RowVersion slots = slotRepository.findVersionInRange(providerId, SlotDateRange.from(startDate, zone), SlotDateRange.until(endDate, zone));
+        RowVersion rules = availabilityRepository.findVersion(providerId);
+        long slotsModified = slots.getLastModified() != null ? slots.getLastModified().toEpochMilli() : -1;
+        long rulesModified = rules.getLastModified() != null ? rules.getLastModified().toEpochMilli() : -1;
+        long slotsMicros = slots.getLastModified() != null ? ChronoUnit.MICROS.between(Instant.EPOCH, slots.getLastModified()) : 0;
+        long rulesMicros = rules.getLastModified() != null ? ChronoUnit.MICROS.between(Instant.EPOCH, rules.getLastModified()) : 0;
+        String eTag = String.format("W/\"%x-%x-%x-%x\"", slots.getCount(), slotsMicros, rules.getCount(), rulesMicros);
+        return new ResourceVersion(eTag, Math.max(slotsModified, rulesModified));
+    }
+
+    // Streaming form of getProviderAvailability; statuses come from statuses(status), so a bad value is rejected
+    // before the response starts
+    @Transactional(readOnly = true)
+    public void streamProviderAvailability(UUID providerId, LocalDate startDate, LocalDate endDate, ZoneId zone,
+                                           Collection<AppointmentSlot.Status> statuses, String appointmentType,
+                                           Consumer<SlotSummary> action) {
+        Instant from = SlotDateRange.from(startDate, zone);
+        Instant to = SlotDateRange.until(endDate, zone);
+        Consumer<SlotSummary> filtered = appointmentType == null || appointmentType.isBlank() ? action : slot -> {
+            if (appointmentType.equalsIgnoreCase(slot.appointmentType())) action.accept(slot);
+        };
+        try (Stream<SlotSummary> rows = slotRepository.streamSummariesInRange(providerId, statuses, from, to)) {
+            if (statuses.contains(AppointmentSlot.Status.AVAILABLE)) {
+                slotRuleService.forEachWithOpenSlots(rows, providerId, null, from, to, filtered);
+            } else {
+                rows.forEach(filtered);
+            }
+        }
+    }
+
+    // Status filter of the availability endpoints; throws IllegalArgumentException for an unknown status
+    public Collection<AppointmentSlot.Status> statuses(String status) {
+        return status != null && !status.isBlank()
+            ? List.of(AppointmentSlot.Status.valueOf(status.toUpperCase()))
+            : EnumSet.allOf(AppointmentSlot.Status.class);
+    }
+}
@@ -4,12 +4,19 @@ import com.healthcare.healthcareproject.dto.ProviderRegistrationRequest;
 import com.healthcare.healthcareproject.dto.ProviderRegistrationResponse;
 import com.healthcare.healthcareproject.dto.ProviderLoginRequest;
 import com.healthcare.healthcareproject.dto.ProviderLoginResponse;
+import com.healthcare.healthcareproject.event.ProviderChangedEvent;
+import com.healthcare.healthcareproject.geo.ZipCodeGeocoder;
 import com.healthcare.healthcareproject.model.Provider;
 import com.healthcare.healthcareproject.repository.ProviderRepository;
 import com.healthcare.healthcareproject.util.ProviderSpecialization;
 import com.healthcare.healthcareproject.security.JwtUtil;
+import com.healthcare.healthcareproject.security.PasswordHasher;
+import com.healthcare.healthcareproject.util.UniqueConstraints;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,9 +24,12 @@ import java.util.*;
 
 @Service
 public class ProviderService {
-    private static final int BCRYPT_ROUNDS = 12;
     private static final Set<String> SPECIALIZATIONS = Arrays.stream(ProviderSpecialization.values())
             .map(Enum::name).collect(java.util.stream.Collectors.toSet());
+    private static final Map<String, String> DUPLICATE_MESSAGES = Map.of(
+            "email", "Email already in use.",
+            "phone_number", "Phone number already in use.",
+            "license_number", "License number already in use.");
 
     @Autowired
     private ProviderRepository providerRepository;
@@ -27,6 +37,18 @@ public class ProviderService {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private ZipCodeGeocoder zipCodeGeocoder;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Transactional
     public ProviderRegistrationResponse registerProvider(ProviderRegistrationRequest request) {
         Map<String, String> errors = new HashMap<>();
@@ -38,21 +60,18 @@ public class ProviderService {
         if (!request.getPassword().equals(request.getConfirmPassword())) {
             errors.put("confirm_password", "Passwords do not match");
         }
-        // Check duplicates
-        if (providerRepository.findByEmail(request.getEmail()).isPresent()) {
-            errors.put("email", "Email already in use.");
-        }
-        if (providerRepository.findByPhoneNumber(request.getPhoneNumber()).isPresent()) {
-            errors.put("phone_number", "Phone number already in use.");
-        }
-        if (providerRepository.findByLicenseNumber(request.getLicenseNumber()).isPresent()) {
-            errors.put("license_number", "License number already in use.");
+        // Check duplicates (one query for all three keys)
+        for (ProviderRepository.UniqueKeys existing : providerRepository.findUniqueKeysByEmailOrPhoneNumberOrLicenseNumber(
+                request.getEmail(), request.getPhoneNumber(), request.getLicenseNumber())) {
+            if (request.getEmail().equals(existing.getEmail())) errors.put("email", DUPLICATE_MESSAGES.get("email"));
+            if (request.getPhoneNumber().equals(existing.getPhoneNumber())) errors.put("phone_number", DUPLICATE_MESSAGES.get("phone_number"));
+            if (request.getLicenseNumber().equals(existing.getLicenseNumber())) errors.put("license_number", DUPLICATE_MESSAGES.get("license_number"));
         }
         if (!errors.isEmpty()) {
             throw new ProviderRegistrationException(errors);
         }
         // Hash password
-        String passwordHash = BCrypt.hashpw(request.getPassword(), BCrypt.gensalt(BCRYPT_ROUNDS));
+        String passwordHash = passwordHasher.hash(request.getPassword());
         // Map DTO to entity
         Provider provider = new Provider();
         provider.setFirstName(request.getFirstName());
@@ -69,10 +88,22 @@ public class ProviderService {
         address.setCity(addr.getOrDefault("city", ""));
         address.setState(addr.getOrDefault("state", ""));
         address.setZip(addr.getOrDefault("zip", ""));
+        zipCodeGeocoder.locate(address.getZip()).ifPresent(point -> {
+            address.setLatitude(point.latitude());
+            address.setLongitude(point.longitude());
+        });
         provider.setClinicAddress(address);
         provider.setVerificationStatus(Provider.VerificationStatus.PENDING);
         provider.setIsActive(true);
-        providerRepository.save(provider);
+        // A concurrent registration with the same key can still get in first; the unique constraint catches that
+        try {
+            providerRepository.saveAndFlush(provider);
+        } catch (DataIntegrityViolationException ex) {
+            String column = UniqueConstraints.violatedColumn(ex, DUPLICATE_MESSAGES.keySet());
+            if (column == null) throw ex;
+            throw new ProviderRegistrationException(Map.of(column, DUPLICATE_MESSAGES.get(column)));
+        }
+        eventPublisher.publishEvent(new ProviderChangedEvent(provider));
         // Prepare response
         ProviderRegistrationResponse resp = new ProviderRegistrationResponse();
         resp.setSuccess(true);
@@ -86,6 +117,21 @@ public class ProviderService {
     }
 
     public ProviderLoginResponse login(ProviderLoginRequest request) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            ProviderLoginResponse response = authenticate(request);
+            outcome = response.isSuccess() ? "success" : "failure";
+            return response;
+        } catch (PasswordHasher.BusyException e) {
+            outcome = "busy";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("auth.login").tag("role", "provider").tag("outcome", outcome).register(meterRegistry));
+        }
+    }
+
+    private ProviderLoginResponse authenticate(ProviderLoginRequest request) {
         ProviderLoginResponse response = new ProviderLoginResponse();
         Optional<Provider> providerOpt = providerRepository.findByEmail(request.getEmail());
         if (providerOpt.isEmpty()) {
@@ -107,12 +153,20 @@ public class ProviderService {
             response.setErrorCode("NOT_ACTIVE");
             return response;
         }
-        if (!BCrypt.checkpw(request.getPassword(), provider.getPasswordHash())) {
+        if (!passwordHasher.matches(request.getPassword(), provider.getPasswordHash())) {
             response.setSuccess(false);
             response.setMessage("Invalid credentials");
             response.setErrorCode("INVALID_CREDENTIALS");
             return response;
         }
+        // Upgrade hashes made with an older cost; a busy hasher only postpones that to a later login
+        if (passwordHasher.needsRehash(provider.getPasswordHash())) {
+            try {
+                provider.setPasswordHash(passwordHasher.hash(request.getPassword()));
+                providerRepository.save(provider);
+            } catch (PasswordHasher.BusyException ignored) {
+            }
+        }
         // JWT claims
         String token = jwtUtil.generateTokenWithClaims(provider.getId().toString(), provider.getEmail(), "provider", 3600);
         Map<String, Object> providerData = new java.util.HashMap<>();
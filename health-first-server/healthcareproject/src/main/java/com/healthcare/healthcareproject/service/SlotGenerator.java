@@ -0,0 +1,155 @@
+package com.healthcare.healthcareproject.service;
+
+import com.healthcare.healthcareproject.model.AppointmentSlot;
+import com.healthcare.healthcareproject.model.ProviderAvailability;
+import com.healthcare.healthcareproject.util.SlotTimes;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.zone.ZoneRules;
+import java.util.*;
+
+// Turns availability rules into slots. Shared by eager generation, rule-only (lazy) availability and the search index
+public final class SlotGenerator {
+    public static final int MAX_SLOT_MINUTES = 180;
+    // Variant bits 11 never occur in random (variant 10) UUIDs, so rule-derived slot ids cannot collide with stored ones
+    private static final long VIRTUAL_ID_MARKER = 0xC000_0000_0000_0000L;
+    private static final Comparator<ProviderAvailability> RULE_ORDER = Comparator.comparing(ProviderAvailability::getDate)
+        .thenComparing(ProviderAvailability::getStartTime)
+        .thenComparing(ProviderAvailability::getId);
+
+    private SlotGenerator() {}
+
+    // Recurrence dates of a rule that fall inside [windowStart, windowEnd]
+    public static List<LocalDate> recurrenceDates(LocalDate date, boolean recurring, String pattern, LocalDate recurrenceEnd,
+                                                  LocalDate windowStart, LocalDate windowEnd) {
+        List<LocalDate> dates = new ArrayList<>();
+        if (!recurring || pattern == null) {
+            if (!date.isBefore(windowStart) && !date.isAfter(windowEnd)) dates.add(date);
+            return dates;
+        }
+        LocalDate last = recurrenceEnd.isBefore(windowEnd) ? recurrenceEnd : windowEnd;
+        LocalDate current = date;
+        while (!current.isAfter(last)) {
+            if (!current.isBefore(windowStart)) dates.add(current);
+            switch (pattern.toLowerCase()) {
+                case "daily": current = current.plusDays(1); break;
+                case "weekly": current = current.plusWeeks(1); break;
+                case "monthly": current = current.plusMonths(1); break;
+                default: throw new IllegalArgumentException("Invalid recurrence_pattern");
+            }
+        }
+        return dates;
+    }
+
+    public static LocalDate lastDate(ProviderAvailability rule) {
+        return rule.isRecurring() && rule.getRecurrenceEndDate() != null ? rule.getRecurrenceEndDate() : rule.getDate();
+    }
+
+    // Slot bounds are computed in epoch minutes: on days without an offset change each bound is one addition,
+    // otherwise every wall-clock time is resolved against the zone rules
+    public static List<AppointmentSlot> buildSlots(ProviderAvailability availability, List<LocalDate> dates, LocalTime start, LocalTime end,
+                                                   ZoneRules zoneRules, int slotDuration, int breakDuration, String appointmentType) {
+        List<AppointmentSlot> slots = new ArrayList<>();
+        int startMinute = start.toSecondOfDay() / 60;
+        int endMinute = end.toSecondOfDay() / 60;
+        for (LocalDate date : dates) {
+            Integer offset = SlotTimes.dayOffsetMinutes(date, zoneRules);
+            long dayMinute = date.toEpochDay() * SlotTimes.MINUTES_PER_DAY;
+            for (int minute = startMinute; minute + slotDuration <= endMinute; minute += slotDuration + breakDuration) {
+                long slotStart = offset != null ? dayMinute + minute - offset : SlotTimes.epochMinute(date, minute, zoneRules);
+                long slotEnd = offset != null ? slotStart + slotDuration : SlotTimes.epochMinute(date, minute + slotDuration, zoneRules);
+                AppointmentSlot slot = new AppointmentSlot();
+                slot.setAvailabilityId(availability.getId());
+                slot.setProviderId(availability.getProviderId());
+                slot.setSlotStartTime(SlotTimes.instant(slotStart));
+                slot.setSlotEndTime(SlotTimes.instant(slotEnd));
+                slot.setStatus(AppointmentSlot.Status.AVAILABLE);
+                slot.setAppointmentType(appointmentType);
+                slot.setBookingReference(UUID.randomUUID().toString());
+                slots.add(slot);
+            }
+        }
+        return slots;
+    }
+
+    // Sweep-line over two start-ordered lists: existing slots that end before the candidate starts can never
+    // overlap a later candidate, so each list is walked once
+    public static List<AppointmentSlot> withoutOverlaps(List<AppointmentSlot> candidates, List<AppointmentSlot> existing) {
+        List<AppointmentSlot> accepted = new ArrayList<>(candidates.size());
+        int j = 0;
+        for (AppointmentSlot candidate : candidates) {
+            while (j < existing.size() && !existing.get(j).getSlotEndTime().isAfter(candidate.getSlotStartTime())) {
+                j++;
+            }
+            boolean overlaps = false;
+            for (int k = j; k < existing.size() && existing.get(k).getSlotStartTime().isBefore(candidate.getSlotEndTime()); k++) {
+                if (existing.get(k).getSlotEndTime().isAfter(candidate.getSlotStartTime())) {
+                    overlaps = true;
+                    break;
+                }
+            }
+            if (!overlaps) {
+                accepted.add(candidate);
+            }
+        }
+        return accepted;
+    }
+
+    // Slots of a lazy rule inside [from, to) (start >= from, end < to), with ids derived from the rule and start minute
+    public static List<AppointmentSlot> expand(ProviderAvailability rule, Instant from, Instant to) {
+        if (rule.getSlotKey() == null) return List.of();
+        List<LocalDate> dates = recurrenceDates(rule.getDate(), rule.isRecurring(),
+            rule.getRecurrencePattern() != null ? rule.getRecurrencePattern().name() : null, lastDate(rule),
+            LocalDate.ofEpochDay(SlotTimes.epochDay(from.getEpochSecond()) - 1), LocalDate.ofEpochDay(SlotTimes.epochDay(to.getEpochSecond()) + 1));
+        List<AppointmentSlot> slots = buildSlots(rule, dates, LocalTime.parse(rule.getStartTime()), LocalTime.parse(rule.getEndTime()),
+            SlotTimes.rules(rule.getTimezone()), rule.getSlotDuration(), rule.getBreakDuration(), rule.getAppointmentType().name().toLowerCase());
+        List<AppointmentSlot> inRange = new ArrayList<>(slots.size());
+        for (AppointmentSlot slot : slots) {
+            if (slot.getSlotStartTime().isBefore(from) || !slot.getSlotEndTime().isBefore(to)) continue;
+            long startMinute = SlotTimes.epochMinute(slot.getSlotStartTime());
+            if (rule.getExcludedSlotStarts() != null && rule.getExcludedSlotStarts().contains(startMinute)) continue;
+            slot.setId(virtualId(rule.getSlotKey(), startMinute));
+            slot.setBookingReference(slot.getId().toString());
+            inRange.add(slot);
+        }
+        return inRange;
+    }
+
+    // Open rule slots of one provider: rule slots that overlap a stored slot (booked, blocked, eager...) or a slot
+    // of an earlier rule are dropped, mirroring the overlap check eager generation applies at insert time
+    public static List<AppointmentSlot> openSlots(List<ProviderAvailability> rules, List<AppointmentSlot> rows,
+                                                  Instant from, Instant to) {
+        List<ProviderAvailability> ordered = new ArrayList<>(rules);
+        ordered.sort(RULE_ORDER);
+        List<AppointmentSlot> taken = new ArrayList<>(rows);
+        taken.sort(Comparator.comparing(AppointmentSlot::getSlotStartTime));
+        List<AppointmentSlot> open = new ArrayList<>();
+        for (ProviderAvailability rule : ordered) {
+            List<AppointmentSlot> accepted = withoutOverlaps(expand(rule, from, to), taken);
+            if (accepted.isEmpty()) continue;
+            open.addAll(accepted);
+            taken.addAll(accepted);
+            taken.sort(Comparator.comparing(AppointmentSlot::getSlotStartTime));
+        }
+        open.sort(Comparator.comparing(AppointmentSlot::getSlotStartTime));
+        return open;
+    }
+
+    public static UUID virtualId(long slotKey, long startEpochMinute) {
+        return new UUID(slotKey, VIRTUAL_ID_MARKER | startEpochMinute);
+    }
+
+    public static boolean isVirtual(UUID slotId) {
+        return (slotId.getLeastSignificantBits() & VIRTUAL_ID_MARKER) == VIRTUAL_ID_MARKER;
+    }
+
+    public static long slotKey(UUID virtualId) {
+        return virtualId.getMostSignificantBits();
+    }
+
+    public static Instant virtualStart(UUID virtualId) {
+        return SlotTimes.instant(virtualId.getLeastSignificantBits() & ~VIRTUAL_ID_MARKER);
+    }
+}
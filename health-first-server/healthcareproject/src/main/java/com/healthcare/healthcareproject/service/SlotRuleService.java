@@ -0,0 +1,226 @@
+package com.healthcare.healthcareproject.service;
+
+import com.healthcare.healthcareproject.dto.SlotSummary;
+import com.healthcare.healthcareproject.event.AvailabilityChangedEvent;
+import com.healthcare.healthcareproject.model.AppointmentSlot;
+import com.healthcare.healthcareproject.model.Provider;
+import com.healthcare.healthcareproject.model.ProviderAvailability;
+import com.healthcare.healthcareproject.repository.AppointmentSlotRepository;
+import com.healthcare.healthcareproject.repository.ProviderAvailabilityRepository;
+import com.healthcare.healthcareproject.repository.ProviderRepository;
+import com.healthcare.healthcareproject.util.ProviderSpecialization;
+import com.healthcare.healthcareproject.util.SlotTimes;
+import jakarta.persistence.EntityManager;
+import org.hibernate.query.TypedParameterValue;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Open slots of lazy availability rules. They are computed on read and only written as
+// AppointmentSlot rows (same id) once they are booked, blocked or otherwise changed
+@Service
+public class SlotRuleService {
+    private static final Set<AppointmentSlot.Status> ALL_STATUSES = EnumSet.allOf(AppointmentSlot.Status.class);
+
+    @Autowired
+    private ProviderAvailabilityRepository availabilityRepository;
+    @Autowired
+    private AppointmentSlotRepository slotRepository;
+    @Autowired
+    private ProviderRepository providerRepository;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private EntityManager entityManager;
+
+    // Open rule slots with start >= from and end < to, sorted by start; providerId null means every provider
+    public List<AppointmentSlot> openSlots(UUID providerId, Instant from, Instant to) {
+        return openSlots(providerId, null, from, to);
+    }
+
+    // Same, limited to the providers of a specialization when providerId is null and specialization is not
+    public List<AppointmentSlot> openSlots(UUID providerId, ProviderSpecialization specialization, Instant from, Instant to) {
+        List<ProviderAvailability> rules = rules(providerId, specialization, from, to);
+        if (rules.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, List<ProviderAvailability>> rulesByProvider = new HashMap<>();
+        for (ProviderAvailability rule : rules) {
+            rulesByProvider.computeIfAbsent(rule.getProviderId(), p -> new ArrayList<>()).add(rule);
+        }
+        // Stored slots of those providers, in one query, hide the rule slots they overlap
+        Map<UUID, List<AppointmentSlot>> rowsByProvider = new HashMap<>();
+        for (AppointmentSlot row : slotRepository.findOverlapping(rulesByProvider.keySet(), ALL_STATUSES,
+                from.minusSeconds(SlotGenerator.MAX_SLOT_MINUTES * 60L), from, to)) {
+            rowsByProvider.computeIfAbsent(row.getProviderId(), p -> new ArrayList<>()).add(row);
+        }
+        List<AppointmentSlot> open = new ArrayList<>();
+        rulesByProvider.forEach((id, providerRules) ->
+            open.addAll(SlotGenerator.openSlots(providerRules, rowsByProvider.getOrDefault(id, List.of()), from, to)));
+        if (rulesByProvider.size() > 1) {
+            open.sort(Comparator.comparing(AppointmentSlot::getSlotStartTime));
+        }
+        return open;
+    }
+
+    // Whether any lazy rule may have slots in the window, without expanding them
+    public boolean hasRules(UUID providerId, ProviderSpecialization specialization, Instant from, Instant to) {
+        return !rules(providerId, specialization, from, to).isEmpty();
+    }
+
+    private List<ProviderAvailability> rules(UUID providerId, ProviderSpecialization specialization, Instant from, Instant to) {
+        // Rule dates are local to the rule's time zone, so widen the UTC window by a day on each side
+        LocalDate fromDate = LocalDate.ofEpochDay(SlotTimes.epochDay(from.getEpochSecond()) - 1);
+        LocalDate toDate = LocalDate.ofEpochDay(SlotTimes.epochDay(to.getEpochSecond()) + 1);
+        return providerId != null
+            ? availabilityRepository.findRules(ProviderAvailability.SlotMaterialization.LAZY, providerId, fromDate, toDate)
+            : specialization != null
+            ? availabilityRepository.findRules(ProviderAvailability.SlotMaterialization.LAZY, specialization, fromDate, toDate)
+            : availabilityRepository.findRules(ProviderAvailability.SlotMaterialization.LAZY, fromDate, toDate);
+    }
+
+    // The first limit open rule slots of the window as listing rows. The rules are expanded a day at a time, doubling
+    // the step each round, so a wide window is only expanded as far as the limit needs
+    public List<SlotSummary> openSlotSummaries(UUID providerId, ProviderSpecialization specialization,
+                                               Instant from, Instant to, int limit) {
+        List<SlotSummary> summaries = new ArrayList<>();
+        Instant stepFrom = from;
+        long stepSeconds = 86_400;
+        while (summaries.size() < limit && stepFrom.isBefore(to)) {
+            Instant stepTo = stepFrom.plusSeconds(stepSeconds);
+            // A slot belongs to the step it starts in, so each step reads one slot length past its end
+            Instant readTo = stepTo.plusSeconds(SlotGenerator.MAX_SLOT_MINUTES * 60L + 1);
+            if (readTo.isAfter(to)) {
+                readTo = to;
+            }
+            for (SlotSummary summary : openSlotSummaries(providerId, specialization, stepFrom, readTo)) {
+                if (summary.slotStartTime().isBefore(stepTo)) {
+                    summaries.add(summary);
+                }
+            }
+            stepFrom = stepTo;
+            stepSeconds *= 2;
+        }
+        return summaries.size() > limit ? summaries.subList(0, limit) : summaries;
+    }
+
+    // Open rule slots as listing rows; their providers are looked up in one query
+    public List<SlotSummary> openSlotSummaries(UUID providerId, ProviderSpecialization specialization,
+                                               Instant from, Instant to) {
+        List<AppointmentSlot> open = openSlots(providerId, specialization, from, to);
+        if (open.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, Provider> providers = new HashMap<>();
+        for (Provider provider : providerRepository.findAllById(open.stream().map(AppointmentSlot::getProviderId).distinct().toList())) {
+            providers.put(provider.getId(), provider);
+        }
+        List<SlotSummary> summaries = new ArrayList<>(open.size());
+        for (AppointmentSlot slot : open) {
+            summaries.add(SlotSummary.of(slot, providers.get(slot.getProviderId())));
+        }
+        return summaries;
+    }
+
+    // Stored slots merged with the open rule slots of the same window, sorted by start
+    public List<SlotSummary> withOpenSlots(List<SlotSummary> rows, UUID providerId, ProviderSpecialization specialization,
+                                           Instant from, Instant to) {
+        List<SlotSummary> open = openSlotSummaries(providerId, specialization, from, to);
+        if (open.isEmpty()) {
+            return rows;
+        }
+        List<SlotSummary> merged = new ArrayList<>(rows.size() + open.size());
+        merged.addAll(rows);
+        merged.addAll(open);
+        merged.sort(Comparator.comparing(SlotSummary::slotStartTime));
+        return merged;
+    }
+
+    // Streaming form of withOpenSlots: rows (sorted by start, e.g. a repository cursor) are merged with the open
+    // rule slots in one pass
+    public long forEachWithOpenSlots(Stream<SlotSummary> rows, UUID providerId, ProviderSpecialization specialization,
+                                     Instant from, Instant to, Consumer<SlotSummary> action) {
+        Iterator<SlotSummary> open = openSlotSummaries(providerId, specialization, from, to).iterator();
+        SlotSummary nextOpen = open.hasNext() ? open.next() : null;
+        long count = 0;
+        for (Iterator<SlotSummary> it = rows.iterator(); it.hasNext(); ) {
+            SlotSummary row = it.next();
+            while (nextOpen != null && nextOpen.slotStartTime().isBefore(row.slotStartTime())) {
+                action.accept(nextOpen);
+                count++;
+                nextOpen = open.hasNext() ? open.next() : null;
+            }
+            action.accept(row);
+            count++;
+        }
+        while (nextOpen != null) {
+            action.accept(nextOpen);
+            count++;
+            nextOpen = open.hasNext() ? open.next() : null;
+        }
+        return count;
+    }
+
+    // The open rule slot behind a rule-derived id, if it is still open
+    public Optional<AppointmentSlot> findOpenSlot(UUID slotId) {
+        if (!SlotGenerator.isVirtual(slotId)) {
+            return Optional.empty();
+        }
+        Optional<ProviderAvailability> rule = availabilityRepository.findBySlotKey(SlotGenerator.slotKey(slotId));
+        if (rule.isEmpty()) {
+            return Optional.empty();
+        }
+        Instant start = SlotGenerator.virtualStart(slotId);
+        return openSlots(rule.get().getProviderId(), start.minusSeconds(SlotGenerator.MAX_SLOT_MINUTES * 60L),
+                start.plusSeconds((rule.get().getSlotDuration() + 1L) * 60)).stream()
+            .filter(slot -> slot.getId().equals(slotId))
+            .findFirst();
+    }
+
+    // Writes a rule slot as a row keeping its id. Returns false when a row with that id already exists,
+    // which makes concurrent bookings of the same rule slot fail instead of overwriting each other
+    @Transactional
+    public boolean materialize(AppointmentSlot slot) {
+        Instant now = Instant.now();
+        slot.setCreatedAt(now);
+        slot.setUpdatedAt(now);
+        int inserted = entityManager.createNativeQuery(
+                "insert into appointment_slot (id, availability_id, provider_id, slot_start_time, slot_end_time, status," +
+                " patient_id, appointment_type, booking_reference, created_at, updated_at)" +
+                " values (?1, ?2, ?3, ?4, ?5, ?6, ?7, ?8, ?9, ?10, ?11) on conflict do nothing")
+            .setParameter(1, slot.getId())
+            .setParameter(2, slot.getAvailabilityId())
+            .setParameter(3, slot.getProviderId())
+            .setParameter(4, slot.getSlotStartTime())
+            .setParameter(5, slot.getSlotEndTime())
+            .setParameter(6, slot.getStatus().name())
+            .setParameter(7, new TypedParameterValue<>(StandardBasicTypes.UUID, slot.getPatientId()))
+            .setParameter(8, new TypedParameterValue<>(StandardBasicTypes.STRING, slot.getAppointmentType()))
+            .setParameter(9, new TypedParameterValue<>(StandardBasicTypes.STRING, slot.getBookingReference()))
+            .setParameter(10, now)
+            .setParameter(11, now)
+            .executeUpdate();
+        return inserted == 1;
+    }
+
+    // Removes a rule slot for good: its start is excluded from the rule and any stored row is deleted
+    @Transactional
+    public void exclude(AppointmentSlot slot) {
+        availabilityRepository.findBySlotKey(SlotGenerator.slotKey(slot.getId())).ifPresent(rule -> {
+            rule.getExcludedSlotStarts().add(SlotTimes.epochMinute(slot.getSlotStartTime()));
+            // Only the collection changed, which does not fire the auditing listener on the rule itself
+            rule.setUpdatedAt(Instant.now());
+            availabilityRepository.save(rule);
+            eventPublisher.publishEvent(new AvailabilityChangedEvent(rule));
+        });
+        slotRepository.deleteById(slot.getId());
+    }
+}
@@ -0,0 +1,31 @@
+package com.healthcare.healthcareproject.util;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+// Slot filters treat a date range as whole days: start of the first day up to (excluding) the day after the last.
+// Days are UTC unless the request names a time zone
+public final class SlotDateRange {
+    public static final Instant MIN = Instant.EPOCH;
+    public static final Instant MAX = LocalDate.of(9999, 1, 1).atStartOfDay(ZoneOffset.UTC).toInstant();
+
+    private SlotDateRange() {}
+
+    public static Instant from(LocalDate startDate) {
+        return from(startDate, null);
+    }
+
+    public static Instant until(LocalDate endDate) {
+        return until(endDate, null);
+    }
+
+    public static Instant from(LocalDate startDate, ZoneId zone) {
+        return startDate == null ? MIN : Instant.ofEpochSecond(SlotTimes.startOfDay(startDate, zone));
+    }
+
+    public static Instant until(LocalDate endDate, ZoneId zone) {
+        return endDate == null ? MAX : Instant.ofEpochSecond(SlotTimes.startOfDay(endDate.plusDays(1), zone));
+    }
+}
@@ -0,0 +1,87 @@
+package com.healthcare.healthcareproject.util;
+
+import java.time.*;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Slot bounds are kept as epoch minutes (or Instants at the entity and DTO boundary). Wall-clock times of a rule are
+// turned into epoch minutes with the zone's rules, which are looked up once per time zone id and cached; zoned
+// values are only built for responses that ask for a time zone
+public final class SlotTimes {
+    public static final int MINUTES_PER_DAY = 1440;
+    private static final Map<String, ZoneRules> RULES = new ConcurrentHashMap<>();
+    private static final Map<String, ZoneId> ZONES = new ConcurrentHashMap<>();
+
+    private SlotTimes() {}
+
+    // Throws DateTimeException for an unknown or malformed id; failures are not cached
+    public static ZoneRules rules(String timezone) {
+        ZoneRules rules = RULES.get(timezone);
+        if (rules == null) {
+            rules = RULES.computeIfAbsent(timezone, id -> zone(id).getRules());
+        }
+        return rules;
+    }
+
+    public static ZoneId zone(String timezone) {
+        ZoneId zone = ZONES.get(timezone);
+        if (zone == null) {
+            zone = ZONES.computeIfAbsent(timezone, ZoneId::of);
+        }
+        return zone;
+    }
+
+    // Epoch minute of a wall-clock time, resolved like ZonedDateTime.of: a time in a DST gap moves forward by the
+    // gap, a time in an overlap takes the earlier offset
+    public static long epochMinute(LocalDate date, int minuteOfDay, ZoneRules rules) {
+        long localMinute = date.toEpochDay() * MINUTES_PER_DAY + minuteOfDay;
+        if (rules.isFixedOffset()) {
+            return localMinute - rules.getOffset(Instant.EPOCH).getTotalSeconds() / 60;
+        }
+        LocalDateTime local = LocalDateTime.of(date, LocalTime.MIN).plusMinutes(minuteOfDay);
+        List<ZoneOffset> offsets = rules.getValidOffsets(local);
+        if (!offsets.isEmpty()) {
+            return localMinute - offsets.get(0).getTotalSeconds() / 60;
+        }
+        ZoneOffsetTransition gap = rules.getTransition(local);
+        return localMinute + gap.getDuration().toMinutes() - gap.getOffsetAfter().getTotalSeconds() / 60;
+    }
+
+    // Offset in minutes of a local day, or null when an offset change falls within a day either side of it;
+    // callers then resolve each time with epochMinute instead
+    public static Integer dayOffsetMinutes(LocalDate date, ZoneRules rules) {
+        if (rules.isFixedOffset()) {
+            return rules.getOffset(Instant.EPOCH).getTotalSeconds() / 60;
+        }
+        ZoneOffset offset = rules.getOffset(LocalDateTime.of(date, LocalTime.NOON));
+        long start = date.toEpochDay() * 86_400 - offset.getTotalSeconds();
+        ZoneOffsetTransition next = rules.nextTransition(Instant.ofEpochSecond(start - 86_400));
+        if (next != null && next.toEpochSecond() < start + 2 * 86_400L) {
+            return null;
+        }
+        return offset.getTotalSeconds() / 60;
+    }
+
+    public static Instant instant(long epochMinute) {
+        return Instant.ofEpochSecond(epochMinute * 60);
+    }
+
+    public static long epochMinute(Instant instant) {
+        return Math.floorDiv(instant.getEpochSecond(), 60);
+    }
+
+    public static long epochDay(long epochSecond) {
+        return Math.floorDiv(epochSecond, 86_400);
+    }
+
+    // Start of a local day in the given zone as epoch seconds (UTC days when zone is null)
+    public static long startOfDay(LocalDate date, ZoneId zone) {
+        if (zone == null || zone == ZoneOffset.UTC) {
+            return date.toEpochDay() * 86_400;
+        }
+        return date.atStartOfDay(zone).toEpochSecond();
+    }
+}
@@ -0,0 +1,27 @@
+package com.healthcare.healthcareproject.util;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Collection;
+import java.util.Locale;
+
+// Maps a unique-constraint violation back to the column it protects, using the constraint name (uk_<table>_<column>)
+// or, for constraints created before they were named, the column list in the driver's message
+public final class UniqueConstraints {
+    private UniqueConstraints() {}
+
+    // The violated column among the given ones, or null when the violation is about something else
+    public static String violatedColumn(DataIntegrityViolationException ex, Collection<String> columns) {
+        String constraint = ex.getCause() instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+            ? violation.getConstraintName().toLowerCase(Locale.ROOT) : "";
+        String message = String.valueOf(ex.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+        for (String column : columns) {
+            // Postgres: Key (email)=(...) already exists; H2: ... ON PUBLIC.PATIENT(EMAIL NULLS FIRST)
+            if (constraint.endsWith("_" + column) || message.contains("(" + column + ")") || message.contains("(" + column + " ")) {
+                return column;
+            }
+        }
+        return null;
+    }
+}
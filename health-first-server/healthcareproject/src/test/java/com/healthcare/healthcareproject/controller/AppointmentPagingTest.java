@@ -0,0 +1,195 @@
+package com.healthcare.healthcareproject.controller;
+
+import com.healthcare.healthcareproject.dto.APIResponse;
+import com.healthcare.healthcareproject.dto.CursorPage;
+import com.healthcare.healthcareproject.dto.SlotSummary;
+import com.healthcare.healthcareproject.model.AppointmentSlot;
+import com.healthcare.healthcareproject.model.ProviderAvailability;
+import com.healthcare.healthcareproject.repository.AppointmentSlotRepository;
+import com.healthcare.healthcareproject.repository.ProviderAvailabilityRepository;
+import com.healthcare.healthcareproject.service.AppointmentBookingService;
+import com.healthcare.healthcareproject.service.SlotRuleService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Page bounds are checked before the service runs, the keyset pages of booked appointments walk newest first, and
+// the pages of available slots merge open rule slots in start order
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:paging;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({AppointmentBookingService.class, SlotRuleService.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AppointmentPagingTest {
+    private static final LocalDate DAY = LocalDate.parse("2025-03-01");
+
+    @Autowired
+    private AppointmentBookingService bookingService;
+    @Autowired
+    private AppointmentSlotRepository slotRepository;
+    @Autowired
+    private ProviderAvailabilityRepository availabilityRepository;
+
+    private AppointmentBookingController controller;
+    private final UUID providerId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        controller = new AppointmentBookingController();
+        ReflectionTestUtils.setField(controller, "bookingService", bookingService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        slotRepository.deleteAll();
+        availabilityRepository.deleteAll();
+    }
+
+    @Test
+    void cursorPagesWalkToTheLastPage() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(0, save(Instant.parse("2025-03-01T09:00:00Z").plusSeconds(1800L * i), AppointmentSlot.Status.BOOKED).getId());
+        }
+        save(Instant.parse("2025-03-01T12:00:00Z"), AppointmentSlot.Status.AVAILABLE);
+
+        List<UUID> seen = new ArrayList<>();
+        String cursor = "";
+        int pages = 0;
+        CursorPage<AppointmentSlot> page;
+        do {
+            page = booked(cursor, 2, pages == 0);
+            page.getContent().forEach(slot -> seen.add(slot.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+            if (pages == 1) assertEquals(5L, page.getTotalElements());
+        } while (page.isHasNext());
+
+        assertEquals(3, pages);
+        assertEquals(1, page.getContent().size());
+        assertNull(page.getNextCursor());
+        assertEquals(ids, seen);
+    }
+
+    @Test
+    void emptyRangeGivesAnEmptyLastPage() {
+        save(Instant.parse("2025-03-01T09:00:00Z"), AppointmentSlot.Status.BOOKED);
+
+        ResponseEntity<APIResponse<?>> response = controller.getAllAppointments(providerId, DAY.plusDays(1), DAY.plusDays(1),
+            0, 10, "", true);
+
+        CursorPage<?> page = (CursorPage<?>) response.getBody().getData();
+        assertTrue(page.getContent().isEmpty());
+        assertFalse(page.isHasNext());
+        assertNull(page.getNextCursor());
+        assertEquals(0L, page.getTotalElements());
+    }
+
+    @Test
+    void badSizesAndCursorsAreRejected() {
+        for (int size : new int[] {0, -1, AppointmentBookingController.MAX_PAGE_SIZE + 1, Integer.MAX_VALUE}) {
+            ResponseEntity<APIResponse<?>> response = controller.getAllAppointments(providerId, DAY, DAY, 0, size, "", false);
+            assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode(), "size " + size);
+            assertTrue(response.getBody().getMessage().startsWith("size must be between 1 and"));
+        }
+        assertEquals(HttpStatus.BAD_REQUEST, controller.getAllAppointments(providerId, DAY, DAY, -1, 10, null, false).getStatusCode());
+        ResponseEntity<APIResponse<?>> badCursor = controller.getAllAppointments(providerId, DAY, DAY, 0, 10, "bm90LWEtY3Vyc29y", false);
+        assertEquals(HttpStatus.BAD_REQUEST, badCursor.getStatusCode());
+        assertEquals("Invalid cursor", badCursor.getBody().getMessage());
+    }
+
+    @Test
+    void availablePagesMergeRuleSlotsWithStoredOnes() {
+        ProviderAvailability rule = new ProviderAvailability();
+        rule.setProviderId(providerId);
+        rule.setDate(DAY);
+        rule.setStartTime("09:00");
+        rule.setEndTime("10:00");
+        rule.setTimezone("UTC");
+        rule.setRecurring(true);
+        rule.setRecurrencePattern(ProviderAvailability.RecurrencePattern.DAILY);
+        rule.setRecurrenceEndDate(DAY.plusDays(365));
+        rule.setMaterialization(ProviderAvailability.SlotMaterialization.LAZY);
+        rule.setSlotKey(ThreadLocalRandom.current().nextLong());
+        availabilityRepository.save(rule);
+        for (int day = 0; day < 3; day++) {
+            save(Instant.parse("2025-03-01T10:00:00Z").plusSeconds(86_400L * day), AppointmentSlot.Status.AVAILABLE);
+        }
+        List<UUID> all = bookingService.getAvailableSlots(providerId, null, DAY, DAY.plusDays(365))
+            .stream().map(SlotSummary::id).toList();
+
+        List<UUID> seen = new ArrayList<>();
+        for (int page = 0; page < 4; page++) {
+            Slice<SlotSummary> slice = available(page, 3);
+            assertTrue(slice.hasNext());
+            slice.getContent().forEach(slot -> seen.add(slot.id()));
+        }
+
+        assertEquals(2 * 366 + 3, all.size());
+        assertEquals(all.subList(0, 12), seen);
+        Slice<SlotSummary> last = available(all.size() / 3 - 1, 3);
+        assertEquals(all.subList(all.size() - 3, all.size()), last.getContent().stream().map(SlotSummary::id).toList());
+        assertFalse(last.hasNext());
+    }
+
+    @Test
+    void badAvailablePagesAreRejected() {
+        int[][] pages = {{0, 0}, {0, AppointmentBookingController.MAX_PAGE_SIZE + 1}, {-1, 10},
+            {AppointmentBookingController.MAX_PAGE + 1, 10}, {Integer.MAX_VALUE, 100}};
+        for (int[] page : pages) {
+            ResponseEntity<APIResponse<Slice<SlotSummary>>> response =
+                controller.getAvailableSlotsPage(providerId, null, DAY, DAY, page[0], page[1]);
+            assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode(), "page " + page[0] + " size " + page[1]);
+        }
+    }
+
+    private Slice<SlotSummary> available(int page, int size) {
+        ResponseEntity<APIResponse<Slice<SlotSummary>>> response =
+            controller.getAvailableSlotsPage(providerId, null, DAY, DAY.plusDays(365), page, size);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        return response.getBody().getData();
+    }
+
+    @SuppressWarnings("unchecked")
+    private CursorPage<AppointmentSlot> booked(String cursor, int size, boolean includeTotal) {
+        ResponseEntity<APIResponse<?>> response = controller.getAllAppointments(providerId, DAY, DAY, 0, size, cursor, includeTotal);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        return (CursorPage<AppointmentSlot>) response.getBody().getData();
+    }
+
+    private AppointmentSlot save(Instant start, AppointmentSlot.Status status) {
+        AppointmentSlot slot = new AppointmentSlot();
+        slot.setAvailabilityId(UUID.randomUUID());
+        slot.setProviderId(providerId);
+        slot.setSlotStartTime(start);
+        slot.setSlotEndTime(start.plusSeconds(30 * 60));
+        slot.setStatus(status);
+        return slotRepository.save(slot);
+    }
+}
@@ -0,0 +1,74 @@
+package com.healthcare.healthcareproject.repository;
+
+import com.healthcare.healthcareproject.model.Patient;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Repeated lookups by email are answered from the query cache, and a write to the table is seen by the next lookup
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:entitycache;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EntityCacheConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EntityCacheTest {
+    @Autowired
+    private PatientRepository patientRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void tearDown() {
+        patientRepository.deleteAll();
+    }
+
+    @Test
+    void lookupsHitTheCacheUntilTheTableChanges() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Patient patient = patientRepository.save(patient("first@example.com"));
+        statistics.clear();
+
+        patientRepository.findByEmail("first@example.com").orElseThrow();
+        patientRepository.findByEmail("first@example.com").orElseThrow();
+        assertEquals(1, statistics.getQueryCacheMissCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+
+        patient.setEmail("second@example.com");
+        patientRepository.save(patient);
+
+        assertTrue(patientRepository.findByEmail("first@example.com").isEmpty());
+        assertEquals("second@example.com", patientRepository.findByEmail("second@example.com").orElseThrow().getEmail());
+    }
+
+    private static Patient patient(String email) {
+        Patient patient = new Patient();
+        patient.setFirstName("Ann");
+        patient.setLastName("Lee");
+        patient.setEmail(email);
+        patient.setPhoneNumber("+15550001111");
+        patient.setPasswordHash("$2a$12$hash");
+        patient.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        patient.setGender(Patient.Gender.FEMALE);
+        return patient;
+    }
+}
@@ -0,0 +1,117 @@
+package com.healthcare.healthcareproject.search;
+
+import com.healthcare.healthcareproject.dto.ProviderSuggestion;
+import com.healthcare.healthcareproject.model.Provider;
+import com.healthcare.healthcareproject.util.ProviderSpecialization;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProviderTypeaheadIndexTest {
+    private ProviderTypeaheadIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProviderTypeaheadIndex();
+    }
+
+    @Test
+    void prefixesOfEveryWordMustMatchAndLastNameRanksFirst() {
+        Provider byLastName = provider("Ann", "Carter", ProviderSpecialization.DERMATOLOGY, "Springfield");
+        Provider byFirstName = provider("Carla", "Stone", ProviderSpecialization.CARDIOLOGY, "Chicago");
+        Provider byCity = provider("José", "Diaz", ProviderSpecialization.CARDIOLOGY, "Carbondale");
+
+        assertEquals(List.of(byLastName.getId(), byFirstName.getId(), byCity.getId()), ids(index.suggest("car", 10)));
+        assertEquals(List.of(byFirstName.getId(), byCity.getId()), ids(index.suggest("cardio car", 10)));
+        assertEquals(List.of(byCity.getId()), ids(index.suggest("JOSE d", 10)));
+        assertEquals(List.of(byLastName.getId()), ids(index.suggest("car", 1)));
+        assertTrue(index.suggest("  ", 10).isEmpty());
+    }
+
+    @Test
+    void reRegisteringReplacesOldTokensAndInactiveProvidersDisappear() {
+        Provider provider = provider("Ann", "Carter", ProviderSpecialization.DERMATOLOGY, "Springfield");
+
+        provider.setLastName("Miller");
+        index.register(provider);
+        assertTrue(index.suggest("carter", 10).isEmpty());
+        assertEquals(List.of(provider.getId()), ids(index.suggest("mil", 10)));
+
+        provider.setIsActive(false);
+        index.register(provider);
+        assertTrue(index.suggest("mil", 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void concurrentReRegistrationsKeepOnePostingSetPerProvider() throws Exception {
+        // Two threads per provider re-register it under different last names; all providers share the other tokens
+        int providers = 4;
+        List<UUID> ids = new ArrayList<>();
+        for (int p = 0; p < providers; p++) {
+            ids.add(provider("Ann", "Alpha" + p, ProviderSpecialization.CARDIOLOGY, "Springfield").getId());
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(2 * providers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 2 * providers; t++) {
+            Provider provider = new Provider();
+            provider.setId(ids.get(t % providers));
+            provider.setFirstName("Ann");
+            provider.setLastName((t < providers ? "Alpha" : "Beta") + t % providers);
+            provider.setSpecialization(ProviderSpecialization.CARDIOLOGY);
+            provider.setClinicAddress(new Provider.ClinicAddress());
+            provider.getClinicAddress().setCity("Springfield");
+            provider.setIsActive(true);
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 500; i++) {
+                    index.register(provider);
+                    if (i % 3 == 0) index.remove(provider.getId());
+                }
+                index.register(provider);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(providers, index.suggest("cardiology springfield", 10).size());
+        for (int p = 0; p < providers; p++) {
+            int matches = index.suggest("alpha" + p, 10).size() + index.suggest("beta" + p, 10).size();
+            assertEquals(1, matches, "provider " + p);
+        }
+    }
+
+    private Provider provider(String firstName, String lastName, ProviderSpecialization specialization, String city) {
+        Provider provider = new Provider();
+        provider.setId(UUID.randomUUID());
+        provider.setFirstName(firstName);
+        provider.setLastName(lastName);
+        provider.setSpecialization(specialization);
+        Provider.ClinicAddress address = new Provider.ClinicAddress();
+        address.setCity(city);
+        provider.setClinicAddress(address);
+        provider.setIsActive(true);
+        index.register(provider);
+        return provider;
+    }
+
+    private static List<UUID> ids(List<ProviderSuggestion> suggestions) {
+        return suggestions.stream().map(ProviderSuggestion::providerId).toList();
+    }
+}
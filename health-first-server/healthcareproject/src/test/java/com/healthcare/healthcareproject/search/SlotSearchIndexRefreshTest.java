@@ -0,0 +1,98 @@
+package com.healthcare.healthcareproject.search;
+
+import com.healthcare.healthcareproject.dto.SlotSummary;
+import com.healthcare.healthcareproject.geo.ZipCodeGeocoder;
+import com.healthcare.healthcareproject.model.AppointmentSlot;
+import com.healthcare.healthcareproject.model.ProviderAvailability;
+import com.healthcare.healthcareproject.repository.AppointmentSlotRepository;
+import com.healthcare.healthcareproject.repository.JpaAuditingConfig;
+import com.healthcare.healthcareproject.repository.ProviderAvailabilityRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Rows written straight to the database stand in for another instance's writes, which raise no local events
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:indexrefresh;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({SlotSearchIndex.class, ZipCodeGeocoder.class, JpaAuditingConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SlotSearchIndexRefreshTest {
+    @Autowired
+    private SlotSearchIndex index;
+    @Autowired
+    private AppointmentSlotRepository slotRepository;
+    @Autowired
+    private ProviderAvailabilityRepository availabilityRepository;
+
+    @AfterEach
+    void tearDown() {
+        slotRepository.deleteAll();
+        availabilityRepository.deleteAll();
+    }
+
+    @Test
+    void refreshPicksUpOtherInstancesCreatesBookingsAndDeletes() {
+        index.rebuild();
+        ProviderAvailability availability = new ProviderAvailability();
+        availability.setProviderId(UUID.randomUUID());
+        availability.setDate(LocalDate.parse("2025-03-01"));
+        availability.setStartTime("09:00");
+        availability.setEndTime("10:00");
+        availability.setTimezone("UTC");
+        availability = availabilityRepository.save(availability);
+        AppointmentSlot booked = slotRepository.save(slot(availability, "2025-03-01T09:00:00Z"));
+        AppointmentSlot deleted = slotRepository.save(slot(availability, "2025-03-01T09:30:00Z"));
+        assertTrue(search(false).isEmpty());
+
+        index.refresh();
+        assertEquals(List.of(booked.getId(), deleted.getId()), search(true).stream().map(SlotSummary::id).toList());
+
+        slotRepository.book(booked.getId(), UUID.randomUUID(), "BK-elsewhere", Instant.now());
+        slotRepository.deleteById(deleted.getId());
+        availabilityRepository.touch(availability.getId(), Instant.now());
+        index.refresh();
+
+        List<SlotSummary> all = search(false);
+        assertEquals(1, all.size());
+        assertEquals(AppointmentSlot.Status.BOOKED, all.get(0).status());
+        assertTrue(search(true).isEmpty());
+    }
+
+    private List<SlotSummary> search(boolean availableOnly) {
+        SlotSearchCriteria criteria = new SlotSearchCriteria();
+        criteria.setStartDate(LocalDate.parse("2025-03-01"));
+        criteria.setEndDate(LocalDate.parse("2025-03-01"));
+        criteria.setAvailableOnly(availableOnly);
+        return index.search(criteria);
+    }
+
+    private static AppointmentSlot slot(ProviderAvailability availability, String start) {
+        AppointmentSlot slot = new AppointmentSlot();
+        slot.setAvailabilityId(availability.getId());
+        slot.setProviderId(availability.getProviderId());
+        slot.setSlotStartTime(Instant.parse(start));
+        slot.setSlotEndTime(slot.getSlotStartTime().plusSeconds(30 * 60));
+        slot.setStatus(AppointmentSlot.Status.AVAILABLE);
+        return slot;
+    }
+}
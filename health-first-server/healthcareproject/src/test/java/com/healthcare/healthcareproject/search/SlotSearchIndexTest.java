@@ -0,0 +1,307 @@
+package com.healthcare.healthcareproject.search;
+
+import com.healthcare.healthcareproject.dto.SlotDayCount;
+import com.healthcare.healthcareproject.dto.SlotSummary;
+import com.healthcare.healthcareproject.event.SlotChangedEvent;
+import com.healthcare.healthcareproject.geo.GeoPoint;
+import com.healthcare.healthcareproject.model.AppointmentSlot;
+import com.healthcare.healthcareproject.model.Provider;
+import com.healthcare.healthcareproject.model.ProviderAvailability;
+import com.healthcare.healthcareproject.service.SlotGenerator;
+import com.healthcare.healthcareproject.util.ProviderSpecialization;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlotSearchIndexTest {
+    private SlotSearchIndex index;
+    private Provider cardiologist;
+    private Provider dermatologist;
+    private ProviderAvailability clinic;
+    private ProviderAvailability telemedicine;
+
+    @BeforeEach
+    void setUp() {
+        index = new SlotSearchIndex();
+        cardiologist = provider(ProviderSpecialization.CARDIOLOGY);
+        dermatologist = provider(ProviderSpecialization.DERMATOLOGY);
+        clinic = availability("clinic", 100.0, true);
+        telemedicine = availability("telemedicine", 40.0, false);
+    }
+
+    @Test
+    void searchReturnsSlotsInRangeSortedByStart() {
+        AppointmentSlot later = slot(cardiologist, clinic, "2025-03-02T10:00:00Z");
+        AppointmentSlot earlier = slot(dermatologist, telemedicine, "2025-03-01T09:00:00Z");
+        slot(cardiologist, clinic, "2025-03-05T09:00:00Z");
+
+        List<SlotSummary> result = index.search(criteria("2025-03-01", "2025-03-02"));
+
+        assertEquals(List.of(earlier.getId(), later.getId()), result.stream().map(SlotSummary::id).toList());
+    }
+
+    @Test
+    void searchAppliesFacets() {
+        AppointmentSlot cardioClinic = slot(cardiologist, clinic, "2025-03-01T09:00:00Z");
+        slot(cardiologist, telemedicine, "2025-03-01T10:00:00Z");
+        slot(dermatologist, clinic, "2025-03-01T11:00:00Z");
+
+        SlotSearchCriteria criteria = criteria("2025-03-01", "2025-03-01");
+        criteria.setSpecialization(ProviderSpecialization.CARDIOLOGY);
+        criteria.setLocationType("CLINIC");
+        criteria.setInsuranceAccepted(true);
+        criteria.setMaxPrice(120.0);
+
+        List<SlotSummary> result = index.search(criteria);
+
+        assertEquals(1, result.size());
+        assertEquals(cardioClinic.getId(), result.get(0).id());
+        assertEquals("Ann CARDIOLOGY", result.get(0).providerName());
+        assertEquals(ProviderSpecialization.CARDIOLOGY, result.get(0).specialization());
+    }
+
+    @Test
+    void indexFollowsBookingAndDeletion() {
+        AppointmentSlot booked = slot(cardiologist, clinic, "2025-03-01T09:00:00Z");
+        AppointmentSlot deleted = slot(cardiologist, clinic, "2025-03-01T10:00:00Z");
+
+        booked.setStatus(AppointmentSlot.Status.BOOKED);
+        index.onSlotChanged(SlotChangedEvent.updated(booked, AppointmentSlot.Status.AVAILABLE));
+        index.onSlotChanged(SlotChangedEvent.deleted(deleted));
+
+        assertTrue(index.search(criteria("2025-03-01", "2025-03-01")).isEmpty());
+        SlotSearchCriteria all = criteria("2025-03-01", "2025-03-01");
+        all.setAvailableOnly(false);
+        List<SlotSummary> result = index.search(all);
+        assertEquals(1, result.size());
+        assertEquals(AppointmentSlot.Status.BOOKED, result.get(0).status());
+    }
+
+    @Test
+    void searchExpandsLazyRulesAroundStoredSlots() {
+        ProviderAvailability rule = availability("clinic", 100.0, true);
+        rule.setProviderId(cardiologist.getId());
+        rule.setDate(LocalDate.parse("2025-03-01"));
+        rule.setStartTime("09:00");
+        rule.setEndTime("11:00");
+        rule.setTimezone("UTC");
+        rule.setMaterialization(ProviderAvailability.SlotMaterialization.LAZY);
+        rule.setSlotKey(42L);
+        index.registerAvailability(rule);
+        // 09:30 was booked and is stored as a row; the rule must not offer it again
+        AppointmentSlot booked = slot(cardiologist, rule, "2025-03-01T09:30:00Z");
+        booked.setStatus(AppointmentSlot.Status.BOOKED);
+        index.onSlotChanged(SlotChangedEvent.updated(booked, AppointmentSlot.Status.AVAILABLE));
+
+        List<SlotSummary> result = index.search(criteria("2025-03-01", "2025-03-01"));
+
+        assertEquals(List.of("2025-03-01T09:00:00Z", "2025-03-01T10:00:00Z", "2025-03-01T10:30:00Z"),
+            result.stream().map(slot -> slot.slotStartTime().toString()).toList());
+        assertTrue(result.stream().allMatch(slot -> SlotGenerator.isVirtual(slot.id())));
+    }
+
+    @Test
+    void dayCountsFollowSlotChangesAndLazyRules() {
+        AppointmentSlot booked = slot(cardiologist, clinic, "2025-03-01T09:00:00Z");
+        AppointmentSlot deleted = slot(cardiologist, clinic, "2025-03-01T10:00:00Z");
+        slot(cardiologist, clinic, "2025-03-02T09:00:00Z");
+        slot(dermatologist, clinic, "2025-03-01T09:00:00Z");
+        booked.setStatus(AppointmentSlot.Status.BOOKED);
+        index.onSlotChanged(SlotChangedEvent.updated(booked, AppointmentSlot.Status.AVAILABLE));
+        index.onSlotChanged(SlotChangedEvent.deleted(deleted));
+        ProviderAvailability rule = availability("clinic", 100.0, true);
+        rule.setProviderId(cardiologist.getId());
+        rule.setDate(LocalDate.parse("2025-03-03"));
+        rule.setStartTime("09:00");
+        rule.setEndTime("11:00");
+        rule.setTimezone("UTC");
+        rule.setMaterialization(ProviderAvailability.SlotMaterialization.LAZY);
+        rule.setSlotKey(42L);
+        index.registerAvailability(rule);
+
+        List<SlotDayCount> days = index.dayCounts(null, ProviderSpecialization.CARDIOLOGY,
+            LocalDate.parse("2025-03-01"), LocalDate.parse("2025-03-03"));
+
+        assertEquals(List.of(
+            new SlotDayCount(cardiologist.getId(), LocalDate.parse("2025-03-01"), 0, 1, 0, 0),
+            new SlotDayCount(cardiologist.getId(), LocalDate.parse("2025-03-02"), 1, 0, 0, 0),
+            new SlotDayCount(cardiologist.getId(), LocalDate.parse("2025-03-03"), 4, 0, 0, 0)), days);
+    }
+
+    @Test
+    void calendarFollowsSlotChangesAndIntersectsProviders() {
+        AppointmentSlot booked = slot(cardiologist, clinic, "2025-03-01T09:00:00Z");
+        AppointmentSlot deleted = slot(cardiologist, clinic, "2025-03-01T09:30:00Z");
+        slot(cardiologist, clinic, "2025-03-01T10:00:00Z");
+        slot(dermatologist, clinic, "2025-03-01T09:30:00Z");
+        slot(dermatologist, clinic, "2025-03-01T10:00:00Z");
+        booked.setStatus(AppointmentSlot.Status.BOOKED);
+        index.onSlotChanged(SlotChangedEvent.updated(booked, AppointmentSlot.Status.AVAILABLE));
+
+        Instant from = Instant.parse("2025-03-01T00:00:00Z");
+        Instant to = Instant.parse("2025-03-02T00:00:00Z");
+        List<UUID> both = List.of(cardiologist.getId(), dermatologist.getId());
+        assertEquals(List.of(Instant.parse("2025-03-01T09:30:00Z"), Instant.parse("2025-03-01T10:00:00Z")),
+            index.freeBlocks(both, from, to, 30));
+        assertFalse(index.isClear(cardiologist.getId(), Instant.parse("2025-03-01T09:20:00Z"), Instant.parse("2025-03-01T09:35:00Z")));
+
+        index.onSlotChanged(SlotChangedEvent.deleted(deleted));
+
+        assertEquals(List.of(Instant.parse("2025-03-01T10:00:00Z")), index.freeBlocks(both, from, to, 30));
+        assertTrue(index.isClear(cardiologist.getId(), Instant.parse("2025-03-01T09:30:00Z"), Instant.parse("2025-03-01T10:00:00Z")));
+        assertFalse(index.isClear(cardiologist.getId(), Instant.parse("2025-03-01T09:30:00Z"), Instant.parse("2025-03-01T10:05:00Z")));
+        assertTrue(index.isBusy(cardiologist.getId(), Instant.parse("2025-03-01T09:30:00Z"), Instant.parse("2025-03-01T10:05:00Z")));
+        assertFalse(index.isBusy(cardiologist.getId(), Instant.parse("2025-03-01T09:30:00Z"), Instant.parse("2025-03-01T10:00:00Z")));
+        // Only steps wholly inside the range count: 09:56-10:04 covers no full step, so it is not reported busy
+        assertFalse(index.isBusy(cardiologist.getId(), Instant.parse("2025-03-01T09:56:00Z"), Instant.parse("2025-03-01T10:04:00Z")));
+    }
+
+    @Test
+    void offGridSlotsOnlyFreeTheStepsTheyFullyCover() {
+        // 09:02-09:32, then a three-minute gap, then 09:35-10:05
+        slot(cardiologist, clinic, "2025-03-01T09:02:00Z");
+        slot(cardiologist, clinic, "2025-03-01T09:35:00Z");
+
+        List<Instant> expected = new ArrayList<>();
+        for (String time : List.of("09:05", "09:10", "09:15", "09:20", "09:25", "09:35", "09:40", "09:45", "09:50", "09:55", "10:00")) {
+            expected.add(Instant.parse("2025-03-01T" + time + ":00Z"));
+        }
+        Instant from = Instant.parse("2025-03-01T00:00:00Z");
+        Instant to = Instant.parse("2025-03-02T00:00:00Z");
+        assertEquals(expected, index.freeBlocks(List.of(cardiologist.getId()), from, to, 5));
+        assertEquals(List.of(), index.freeBlocks(List.of(cardiologist.getId()), from, to, 30));
+        // The partly covered steps still count as touched
+        assertFalse(index.isClear(cardiologist.getId(), Instant.parse("2025-03-01T09:00:00Z"), Instant.parse("2025-03-01T09:05:00Z")));
+        assertTrue(index.isBusy(cardiologist.getId(), Instant.parse("2025-03-01T09:30:00Z"), Instant.parse("2025-03-01T09:35:00Z")));
+    }
+
+    @Test
+    void concurrentUpdatesOfOneSlotLeaveOneEntryAndItsBitmap() throws Exception {
+        AppointmentSlot original = slot(cardiologist, clinic, "2025-03-01T09:00:00Z");
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 500; i++) {
+                    // Each event moves the slot to another start and status, so a leftover entry shows up in search
+                    AppointmentSlot update = new AppointmentSlot();
+                    update.setId(original.getId());
+                    update.setProviderId(cardiologist.getId());
+                    update.setAvailabilityId(clinic.getId());
+                    update.setSlotStartTime(original.getSlotStartTime().plusSeconds((thread * 500L + i) % 48 * 1800));
+                    update.setSlotEndTime(update.getSlotStartTime().plusSeconds(30 * 60));
+                    update.setStatus(i % 2 == 0 ? AppointmentSlot.Status.BOOKED : AppointmentSlot.Status.AVAILABLE);
+                    index.onSlotChanged(SlotChangedEvent.updated(update, AppointmentSlot.Status.AVAILABLE));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        SlotSearchCriteria all = criteria("2025-03-01", "2025-03-02");
+        all.setAvailableOnly(false);
+        List<SlotSummary> result = index.search(all);
+        assertEquals(1, result.size());
+        // The calendar marks the surviving position and nothing else
+        SlotSummary survivor = result.get(0);
+        assertTrue(index.isBusy(cardiologist.getId(), survivor.slotStartTime(), survivor.slotEndTime()));
+        assertTrue(index.isClear(cardiologist.getId(), Instant.parse("2025-03-01T00:00:00Z"), survivor.slotStartTime()));
+        assertTrue(index.isClear(cardiologist.getId(), survivor.slotEndTime(), Instant.parse("2025-03-03T00:00:00Z")));
+        assertEquals(1, index.size());
+        int counted = index.dayCounts(cardiologist.getId(), null, LocalDate.parse("2025-03-01"), LocalDate.parse("2025-03-02"))
+            .stream().mapToInt(day -> day.available() + day.booked()).sum();
+        assertEquals(1, counted);
+    }
+
+    @Test
+    void nearSearchSortsByDistanceThenStart() {
+        // Clinics in Springfield IL and Decatur IL (about 60 km apart); the dermatologist's clinic is unknown
+        cardiologist.getClinicAddress().setLatitude(39.7996);
+        cardiologist.getClinicAddress().setLongitude(-89.6493);
+        index.registerProvider(cardiologist);
+        Provider decatur = provider(ProviderSpecialization.CARDIOLOGY);
+        decatur.getClinicAddress().setLatitude(39.8287);
+        decatur.getClinicAddress().setLongitude(-88.9243);
+        index.registerProvider(decatur);
+        AppointmentSlot nearLate = slot(cardiologist, clinic, "2025-03-01T11:00:00Z");
+        AppointmentSlot nearEarly = slot(cardiologist, clinic, "2025-03-01T09:00:00Z");
+        AppointmentSlot far = slot(decatur, clinic, "2025-03-01T08:00:00Z");
+        slot(dermatologist, clinic, "2025-03-01T08:00:00Z");
+
+        SlotSearchCriteria criteria = criteria("2025-03-01", "2025-03-01");
+        criteria.setNear(new GeoPoint(39.7817, -89.6501));
+        criteria.setRadiusKm(100);
+        List<SlotSummary> result = index.search(criteria);
+
+        assertEquals(List.of(nearEarly.getId(), nearLate.getId(), far.getId()), result.stream().map(SlotSummary::id).toList());
+        assertEquals(2.0, result.get(0).distanceKm());
+        criteria.setRadiusKm(20);
+        assertEquals(List.of(nearEarly.getId(), nearLate.getId()), index.search(criteria).stream().map(SlotSummary::id).toList());
+    }
+
+    private Provider provider(ProviderSpecialization specialization) {
+        Provider provider = new Provider();
+        provider.setId(UUID.randomUUID());
+        provider.setFirstName("Ann");
+        provider.setLastName(specialization.name());
+        provider.setSpecialization(specialization);
+        provider.setClinicAddress(new Provider.ClinicAddress());
+        index.registerProvider(provider);
+        return provider;
+    }
+
+    private ProviderAvailability availability(String locationType, Double baseFee, Boolean insuranceAccepted) {
+        ProviderAvailability availability = new ProviderAvailability();
+        availability.setId(UUID.randomUUID());
+        ProviderAvailability.Location location = new ProviderAvailability.Location();
+        location.setType(locationType);
+        availability.setLocation(location);
+        ProviderAvailability.Pricing pricing = new ProviderAvailability.Pricing();
+        pricing.setBaseFee(baseFee);
+        pricing.setInsuranceAccepted(insuranceAccepted);
+        availability.setPricing(pricing);
+        index.registerAvailability(availability);
+        return availability;
+    }
+
+    private AppointmentSlot slot(Provider provider, ProviderAvailability availability, String start) {
+        AppointmentSlot slot = new AppointmentSlot();
+        slot.setId(UUID.randomUUID());
+        slot.setProviderId(provider.getId());
+        slot.setAvailabilityId(availability.getId());
+        slot.setSlotStartTime(Instant.parse(start));
+        slot.setSlotEndTime(Instant.parse(start).plusSeconds(30 * 60));
+        slot.setStatus(AppointmentSlot.Status.AVAILABLE);
+        index.onSlotChanged(SlotChangedEvent.created(List.of(slot)));
+        return slot;
+    }
+
+    private SlotSearchCriteria criteria(String startDate, String endDate) {
+        SlotSearchCriteria criteria = new SlotSearchCriteria();
+        criteria.setStartDate(LocalDate.parse(startDate));
+        criteria.setEndDate(LocalDate.parse(endDate));
+        return criteria;
+    }
+}
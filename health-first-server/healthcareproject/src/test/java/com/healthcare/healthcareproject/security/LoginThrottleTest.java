@@ -0,0 +1,103 @@
+package com.healthcare.healthcareproject.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginThrottleTest {
+    private LoginThrottle throttle;
+    private SimpleMeterRegistry registry;
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        throttle = new LoginThrottle();
+        ReflectionTestUtils.setField(throttle, "meterRegistry", registry);
+        ReflectionTestUtils.setField(throttle, "enabled", true);
+        ReflectionTestUtils.setField(throttle, "ipBurst", 10);
+        ReflectionTestUtils.setField(throttle, "ipPerMinute", 60);
+        ReflectionTestUtils.setField(throttle, "accountBurst", 3);
+        ReflectionTestUtils.setField(throttle, "accountPerMinute", 6);
+        ReflectionTestUtils.setField(throttle, "maxKeys", 100);
+        throttle.clock = now::get;
+        throttle.start();
+    }
+
+    @Test
+    void accountBucketAllowsBurstThenRefills() {
+        for (int i = 0; i < 3; i++) {
+            throttle.acquire("10.0.0.1", "patient:ann@example.com");
+        }
+        LoginThrottle.ThrottledException ex = assertThrows(LoginThrottle.ThrottledException.class,
+            () -> throttle.acquire("10.0.0.2", "patient:ANN@example.com"));
+        assertEquals(10, ex.getRetryAfterSeconds());
+        // Other accounts are unaffected
+        throttle.acquire("10.0.0.1", "patient:bob@example.com");
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        throttle.acquire("10.0.0.1", "patient:ann@example.com");
+        assertThrows(LoginThrottle.ThrottledException.class, () -> throttle.acquire("10.0.0.1", "patient:ann@example.com"));
+
+        assertEquals(5, registry.get("auth.login.throttle").tag("decision", "allowed").counter().count());
+        assertEquals(2, registry.get("auth.login.throttle").tag("decision", "account_limited").counter().count());
+    }
+
+    @Test
+    void ipBucketLimitsSprayingManyAccounts() {
+        for (int i = 0; i < 10; i++) {
+            throttle.acquire("10.0.0.1", "patient:user" + i + "@example.com");
+        }
+        assertThrows(LoginThrottle.ThrottledException.class, () -> throttle.acquire("10.0.0.1", "patient:user10@example.com"));
+        assertEquals(1, registry.get("auth.login.throttle").tag("decision", "ip_limited").counter().count());
+        // The rejected attempt did not reach (or create) the account bucket
+        assertFalse(accountBuckets().containsKey("patient:user10@example.com"));
+    }
+
+    @Test
+    void keyCountStaysBounded() {
+        for (int i = 0; i < 1_000; i++) {
+            throttle.acquire("10.0.0." + i, "patient:user" + i + "@example.com");
+            now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        }
+        assertTrue(accountBuckets().size() <= 100);
+    }
+
+    @Test
+    void sprayingNewAccountsDoesNotResetAThrottledOne() {
+        for (int i = 0; i < 3; i++) {
+            throttle.acquire("10.0.0.1", "patient:ann@example.com");
+        }
+        // Fill the map well past max-keys from many addresses without letting any bucket refill
+        for (int i = 0; i < 300; i++) {
+            throttle.acquire("10.0." + (i / 100) + "." + (i % 100), "patient:" + i + "@spray.example");
+        }
+
+        assertTrue(accountBuckets().size() <= 100);
+        assertThrows(LoginThrottle.ThrottledException.class, () -> throttle.acquire("10.0.9.9", "patient:ann@example.com"));
+    }
+
+    @Test
+    void accountKeysAreNormalizedAndSkippedWhenMissing() {
+        assertEquals("patient:alice@x.com", LoginThrottle.accountKey("patient", "  Alice@X.com "));
+        assertNull(LoginThrottle.accountKey("patient", null));
+        assertNull(LoginThrottle.accountKey("patient", " "));
+
+        for (int i = 0; i < 5; i++) {
+            throttle.acquire("10.0.0." + i, LoginThrottle.accountKey("patient", null));
+        }
+        assertTrue(accountBuckets().isEmpty());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, AtomicLong> accountBuckets() {
+        return (Map<String, AtomicLong>) ReflectionTestUtils.getField(throttle, "accountBuckets");
+    }
+}
@@ -0,0 +1,90 @@
+package com.healthcare.healthcareproject.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+    private PasswordHasher hasher;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        hasher = new PasswordHasher();
+        ReflectionTestUtils.setField(hasher, "meterRegistry", registry);
+        ReflectionTestUtils.setField(hasher, "cost", 10);
+        ReflectionTestUtils.setField(hasher, "threads", 1);
+        ReflectionTestUtils.setField(hasher, "queueCapacity", 1);
+        ReflectionTestUtils.setField(hasher, "timeoutMs", 10_000L);
+        hasher.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        hasher.stop();
+    }
+
+    @Test
+    void hashesAndDetectsCostChanges() {
+        String hash = hasher.hash("s3cret-Password");
+
+        assertTrue(hasher.matches("s3cret-Password", hash));
+        assertFalse(hasher.matches("wrong", hash));
+        assertFalse(hasher.needsRehash(hash));
+        ReflectionTestUtils.setField(hasher, "cost", 11);
+        assertTrue(hasher.needsRehash(hash));
+    }
+
+    @Test
+    void rejectsWhenPoolAndQueueAreFull() throws Exception {
+        // One worker and one queue slot: of many simultaneous requests, the overflow must fail fast
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(callers.submit(() -> {
+                start.await();
+                return hasher.hash("s3cret-Password");
+            }));
+        }
+        start.countDown();
+        int rejected = 0;
+        for (Future<String> result : results) {
+            try {
+                result.get(30, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                assertInstanceOf(PasswordHasher.BusyException.class, e.getCause());
+                rejected++;
+            }
+        }
+        callers.shutdown();
+
+        assertTrue(rejected > 0);
+        assertEquals(rejected, registry.get("auth.bcrypt.rejected").counter().count());
+    }
+
+    @Test
+    void countsTimedOutHashesAsAbandonedUntilTheyFinish() throws Exception {
+        // A 1 ms wait is well below the time one hash takes at cost 10
+        ReflectionTestUtils.setField(hasher, "timeoutMs", 1L);
+
+        assertThrows(PasswordHasher.BusyException.class, () -> hasher.hash("s3cret-Password"));
+        assertEquals(1, registry.get("auth.bcrypt.rejected").counter().count());
+        assertEquals(1, registry.get("auth.bcrypt.abandoned").gauge().value());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (registry.get("auth.bcrypt.abandoned").gauge().value() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, registry.get("auth.bcrypt.abandoned").gauge().value());
+    }
+}
@@ -0,0 +1,143 @@
+package com.healthcare.healthcareproject.service;
+
+import com.healthcare.healthcareproject.dto.BookAppointmentRequest;
+import com.healthcare.healthcareproject.dto.SlotSummary;
+import com.healthcare.healthcareproject.model.AppointmentSlot;
+import com.healthcare.healthcareproject.model.ProviderAvailability;
+import com.healthcare.healthcareproject.repository.AppointmentSlotRepository;
+import com.healthcare.healthcareproject.repository.ProviderAvailabilityRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Many threads race for the same slots; every slot must end up booked exactly once, by the request that won
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:booking;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({AppointmentBookingService.class, SlotRuleService.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AppointmentBookingConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int SLOTS = 20;
+
+    @Autowired
+    private AppointmentBookingService bookingService;
+    @Autowired
+    private AppointmentSlotRepository slotRepository;
+    @Autowired
+    private ProviderAvailabilityRepository availabilityRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        slotRepository.deleteAll();
+        availabilityRepository.deleteAll();
+        meterRegistry.clear();
+    }
+
+    @Test
+    void storedSlotIsBookedOnceUnderContention() throws Exception {
+        UUID providerId = UUID.randomUUID();
+        List<UUID> slotIds = new ArrayList<>();
+        for (int i = 0; i < SLOTS; i++) {
+            AppointmentSlot slot = new AppointmentSlot();
+            slot.setAvailabilityId(UUID.randomUUID());
+            slot.setProviderId(providerId);
+            slot.setSlotStartTime(Instant.parse("2025-03-01T09:00:00Z").plusSeconds(30L * 60 * i));
+            slot.setSlotEndTime(slot.getSlotStartTime().plusSeconds(30 * 60));
+            slot.setStatus(AppointmentSlot.Status.AVAILABLE);
+            slotIds.add(slotRepository.save(slot).getId());
+        }
+
+        Map<UUID, List<UUID>> winners = race(slotIds);
+
+        for (UUID slotId : slotIds) {
+            assertEquals(1, winners.get(slotId).size(), "winners for slot " + slotId);
+            AppointmentSlot stored = slotRepository.findById(slotId).orElseThrow();
+            assertEquals(AppointmentSlot.Status.BOOKED, stored.getStatus());
+            assertEquals(winners.get(slotId).get(0), stored.getPatientId());
+        }
+        assertEquals(SLOTS, bookings("booked"));
+        assertEquals((THREADS - 1) * SLOTS, bookings("conflict"));
+    }
+
+    @Test
+    void ruleSlotIsBookedOnceUnderContention() throws Exception {
+        ProviderAvailability rule = new ProviderAvailability();
+        rule.setProviderId(UUID.randomUUID());
+        rule.setDate(LocalDate.parse("2025-03-01"));
+        rule.setStartTime("09:00");
+        rule.setEndTime("19:00");
+        rule.setTimezone("UTC");
+        rule.setMaterialization(ProviderAvailability.SlotMaterialization.LAZY);
+        rule.setSlotKey(ThreadLocalRandom.current().nextLong());
+        availabilityRepository.save(rule);
+        List<UUID> slotIds = bookingService.getAvailableSlots(rule.getProviderId(), null, rule.getDate(), rule.getDate())
+            .stream().map(SlotSummary::id).toList();
+
+        Map<UUID, List<UUID>> winners = race(slotIds);
+
+        assertEquals(SLOTS, slotIds.size());
+        for (UUID slotId : slotIds) {
+            assertEquals(1, winners.get(slotId).size(), "winners for slot " + slotId);
+            assertEquals(winners.get(slotId).get(0), slotRepository.findById(slotId).orElseThrow().getPatientId());
+        }
+    }
+
+    private long bookings(String outcome) {
+        return meterRegistry.get("appointments.booking").tag("outcome", outcome).timer().count();
+    }
+
+    // Every thread tries every slot, starting together; returns the patients whose booking succeeded per slot
+    private Map<UUID, List<UUID>> race(List<UUID> slotIds) throws Exception {
+        Map<UUID, List<UUID>> winners = new ConcurrentHashMap<>();
+        slotIds.forEach(id -> winners.put(id, new CopyOnWriteArrayList<>()));
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (UUID slotId : slotIds) {
+                    BookAppointmentRequest request = new BookAppointmentRequest();
+                    request.setSlotId(slotId);
+                    request.setPatientId(UUID.randomUUID());
+                    Optional<AppointmentSlot> booked = bookingService.bookAppointment(request);
+                    booked.ifPresent(slot -> winners.get(slotId).add(request.getPatientId()));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        return winners;
+    }
+}
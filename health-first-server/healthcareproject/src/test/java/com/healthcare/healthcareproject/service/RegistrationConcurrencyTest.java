@@ -0,0 +1,109 @@
+package com.healthcare.healthcareproject.service;
+
+import com.healthcare.healthcareproject.dto.PatientRegistrationRequest;
+import com.healthcare.healthcareproject.repository.PatientRepository;
+import com.healthcare.healthcareproject.security.JwtUtil;
+import com.healthcare.healthcareproject.security.PasswordHasher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Registrations that race past the duplicate check are stopped by the unique constraints and reported per field
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:registration;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "healthcare.security.bcrypt.cost=4"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PatientService.class, PasswordHasher.class, JwtUtil.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RegistrationConcurrencyTest {
+    private static final int THREADS = 8;
+
+    @Autowired
+    private PatientService patientService;
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @AfterEach
+    void tearDown() {
+        patientRepository.deleteAll();
+    }
+
+    @Test
+    void duplicateKeysAreReportedTogether() {
+        patientService.registerPatient(request("ann@example.com", "+15550000000"));
+
+        PatientService.PatientRegistrationException ex = assertThrows(PatientService.PatientRegistrationException.class,
+            () -> patientService.registerPatient(request("ann@example.com", "+15550000000")));
+        assertEquals(Set.of("email", "phone_number"), ex.getErrors().keySet());
+    }
+
+    @Test
+    void concurrentRegistrationsWithOneEmailCreateOnePatient() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Map<String, String[]>>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            String phone = "+1555000000" + t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    patientService.registerPatient(request("race@example.com", phone));
+                    return null;
+                } catch (PatientService.PatientRegistrationException ex) {
+                    return ex.getErrors();
+                }
+            }));
+        }
+        start.countDown();
+        int registered = 0;
+        for (Future<Map<String, String[]>> future : futures) {
+            Map<String, String[]> errors = future.get(60, TimeUnit.SECONDS);
+            if (errors == null) {
+                registered++;
+            } else {
+                assertTrue(errors.containsKey("email"), "errors " + errors.keySet());
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, registered);
+        assertEquals(1, patientRepository.count());
+    }
+
+    private static PatientRegistrationRequest request(String email, String phoneNumber) {
+        PatientRegistrationRequest request = new PatientRegistrationRequest();
+        request.setFirstName("Ann");
+        request.setLastName("Lee");
+        request.setEmail(email);
+        request.setPhoneNumber(phoneNumber);
+        request.setPassword("Passw0rd!");
+        request.setConfirmPassword("Passw0rd!");
+        request.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        request.setGender("female");
+        request.setAddress(Map.of("street", "1 Main St"));
+        return request;
+    }
+}
@@ -0,0 +1,34 @@
+package com.healthcare.healthcareproject.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneRules;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SlotTimesTest {
+
+    @Test
+    void epochMinutesMatchZonedDateTimeAcrossOffsetChanges() {
+        for (String timezone : new String[] {"America/New_York", "Europe/London", "Australia/Lord_Howe", "Asia/Kolkata", "UTC"}) {
+            ZoneId zone = ZoneId.of(timezone);
+            ZoneRules rules = SlotTimes.rules(timezone);
+            for (LocalDate date = LocalDate.of(2025, 1, 1); date.getYear() == 2025; date = date.plusDays(1)) {
+                Integer dayOffset = SlotTimes.dayOffsetMinutes(date, rules);
+                for (int minute = 0; minute < SlotTimes.MINUTES_PER_DAY; minute += 15) {
+                    long expected = ZonedDateTime.of(date, LocalTime.MIN.plusMinutes(minute), zone).toEpochSecond() / 60;
+                    assertEquals(expected, SlotTimes.epochMinute(date, minute, rules), timezone + " " + date + " " + minute);
+                    if (dayOffset != null) {
+                        assertEquals(expected, date.toEpochDay() * SlotTimes.MINUTES_PER_DAY + minute - dayOffset);
+                    }
+                }
+            }
+        }
+        assertNull(SlotTimes.dayOffsetMinutes(LocalDate.of(2025, 3, 9), SlotTimes.rules("America/New_York")));
+    }
+}